@@ -10,13 +10,14 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Profile;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import java.time.LocalDate;
 import java.util.Collections;
 import java.math.BigDecimal;
 
 @SpringBootApplication
+@EnableScheduling
 public class BeverageStoreApplication {
 
     public static void main(String[] args) {
@@ -119,9 +120,4 @@ public class BeverageStoreApplication {
 
         };
     }
-
-    @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
-    }
 }
@@ -0,0 +1,29 @@
+package beverage_store.analytics;
+
+/**
+ * Something that happened to a shopping cart, as recorded for the cart statistics.
+ *
+ * @param type       what happened
+ * @param cartId     id of the session cart (see {@link beverage_store.cart.SessionCart#getId()})
+ * @param beverageId beverage the change was about, 0 for whole-cart events
+ * @param quantity   quantity of the line after the change (ADD, UPDATE) or before it (REMOVE);
+ *                   number of lines for CHECKOUT and SESSION_END
+ * @param timestamp  epoch milliseconds
+ */
+public record CartEvent(Type type, String cartId, long beverageId, int quantity, long timestamp) {
+
+    public enum Type {
+        ADD,
+        UPDATE,
+        REMOVE,
+        CLEAR,
+        /**
+         * The cart's stock was committed for an order.
+         */
+        CHECKOUT,
+        /**
+         * The session holding a non-empty cart ended.
+         */
+        SESSION_END
+    }
+}
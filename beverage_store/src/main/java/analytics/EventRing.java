@@ -0,0 +1,92 @@
+package beverage_store.analytics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free ring buffer for many producers and one consumer. Every slot carries a sequence number
+ * telling whose turn it is: producers claim a position with one CAS and publish by advancing the slot's
+ * sequence, the consumer only reads slots whose sequence says they are published. A full ring rejects the
+ * element instead of waiting, so producers never block.
+ * <p>
+ * {@link #drain} must not be called by more than one thread at a time.
+ *
+ * @param <T> element type
+ */
+public final class EventRing<T> {
+
+    private final int mask;
+    private final AtomicReferenceArray<T> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    public EventRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return false if the ring is full; the element is not added then
+     */
+    public boolean offer(T element) {
+        while (true) {
+            long position = tail.get();
+            int slot = (int) (position & mask);
+            long sequence = sequences.get(slot);
+            if (sequence < position) {
+                // slot still holds the element from one lap ago
+                return false;
+            }
+            if (sequence == position && tail.compareAndSet(position, position + 1)) {
+                elements.lazySet(slot, element);
+                sequences.set(slot, position + 1);
+                return true;
+            }
+            // another producer claimed this position, try the next one
+        }
+    }
+
+    /**
+     * Hand up to max published elements to the consumer, oldest first.
+     *
+     * @return number of elements handed over
+     */
+    public int drain(Consumer<? super T> consumer, int max) {
+        int drained = 0;
+        while (drained < max) {
+            int slot = (int) (head & mask);
+            if (sequences.get(slot) != head + 1) {
+                break;
+            }
+            T element = elements.get(slot);
+            elements.lazySet(slot, null);
+            sequences.set(slot, head + mask + 1);
+            head++;
+            drained++;
+            consumer.accept(element);
+        }
+        return drained;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Approximate number of elements waiting.
+     */
+    public int size() {
+        return (int) Math.max(0, Math.min(capacity(), tail.get() - head));
+    }
+}
@@ -0,0 +1,58 @@
+package beverage_store.cart;
+
+import beverage_store.analytics.CartEvent;
+import beverage_store.service.CartAnalyticsService;
+import beverage_store.service.CartPersistenceService;
+import beverage_store.service.StockReservationService;
+import beverage_store.service.impl.ShoppingCartServiceImpl;
+import jakarta.servlet.http.HttpSessionEvent;
+import jakarta.servlet.http.HttpSessionListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * When a session ends (logout or timeout): releases the cart's stock reservations and writes a signed-in
+ * user's buffered cart instead of waiting for the next scheduled flush. A cart that still holds items counts
+ * as abandoned in the cart statistics. Only sessions kept by the servlet container report their end; with the
+ * shared-session profile reservations expire, the scheduled flush covers the rest and idle carts are counted
+ * as abandoned after a while.
+ */
+@Component
+public class CartSessionListener implements HttpSessionListener {
+
+    private final CartPersistenceService cartPersistence;
+    private final StockReservationService stockReservations;
+    private final CartAnalyticsService cartAnalytics;
+
+    public CartSessionListener(CartPersistenceService cartPersistence, StockReservationService stockReservations,
+                               CartAnalyticsService cartAnalytics) {
+        this.cartPersistence = cartPersistence;
+        this.stockReservations = stockReservations;
+        this.cartAnalytics = cartAnalytics;
+    }
+
+    @Override
+    public void sessionDestroyed(HttpSessionEvent event) {
+        if (!(event.getSession().getAttribute(ShoppingCartServiceImpl.CART_ATTRIBUTE) instanceof SessionCart cart)) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>();
+        cart.lock();
+        try {
+            for (long id : cart.getLines().ids()) {
+                ids.add(id);
+            }
+        } finally {
+            cart.unlock();
+        }
+        stockReservations.release(cart.getId(), ids);
+        if (!ids.isEmpty()) {
+            cartAnalytics.record(CartEvent.Type.SESSION_END, cart.getId(), 0, ids.size());
+        }
+        if (cart.getOwner() != null) {
+            cartPersistence.flush(cart.getOwner());
+        }
+    }
+}
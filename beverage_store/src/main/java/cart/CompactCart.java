@@ -0,0 +1,401 @@
+package beverage_store.cart;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serial;
+import java.io.Serializable;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Cart lines as parallel primitive arrays: beverage id, quantity and the unit price in cents at the time
+ * the line was added. Lines keep insertion order for display; an open-addressing index finds a line by id.
+ * A line costs 20 bytes of array space instead of an OrderItem holding a Beverage graph.
+ * Total price and item count are kept up to date by every change, so reading them is O(1).
+ * <p>
+ * Not thread-safe; the owning cart service synchronizes access.
+ */
+public final class CompactCart implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final int MIN_CAPACITY = 4;
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private static final int MAX_SERIALIZED_BYTES = 1 << 20;
+
+    private transient long[] ids;
+    private transient int[] quantities;
+    private transient long[] unitCents;
+    private transient int size;
+    private transient long totalCents;
+    private transient long itemCount;
+
+    /**
+     * Hash slot -> line position + 1, 0 marks a free slot. Length is a power of two, at least twice the capacity.
+     */
+    private transient int[] index;
+
+    public CompactCart() {
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * Number of lines (distinct beverages).
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long idAt(int position) {
+        checkPosition(position);
+        return ids[position];
+    }
+
+    public int quantityAt(int position) {
+        checkPosition(position);
+        return quantities[position];
+    }
+
+    public long unitCentsAt(int position) {
+        checkPosition(position);
+        return unitCents[position];
+    }
+
+    /**
+     * Position of a beverage's line, -1 if it isn't in the cart.
+     */
+    public int positionOf(long id) {
+        return find(id);
+    }
+
+    /**
+     * Quantity of a beverage, 0 if it isn't in the cart.
+     */
+    public int quantityOf(long id) {
+        int position = find(id);
+        return position < 0 ? 0 : quantities[position];
+    }
+
+    public boolean contains(long id) {
+        return find(id) >= 0;
+    }
+
+    /**
+     * Sum of unit price times quantity over all lines.
+     */
+    public long totalCents() {
+        return totalCents;
+    }
+
+    /**
+     * Sum of all quantities.
+     */
+    public long itemCount() {
+        return itemCount;
+    }
+
+    /**
+     * Beverage ids in line order.
+     */
+    public long[] ids() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    /**
+     * Add a quantity of a beverage, merging with an existing line. The line's price snapshot is replaced
+     * by the given one, so it always reflects the catalog price of the last add.
+     *
+     * @throws IllegalArgumentException if the quantity is not positive or the price is negative
+     * @throws ArithmeticException      if the merged quantity overflows
+     */
+    public void add(long id, int quantity, long unitPriceCents) {
+        if (quantity < 1) {
+            throw new IllegalArgumentException("Quantity must be at least 1");
+        }
+        if (unitPriceCents < 0) {
+            throw new IllegalArgumentException("Price can not be negative");
+        }
+        int position = find(id);
+        if (position >= 0) {
+            int merged = Math.addExact(quantities[position], quantity);
+            long lineCents = Math.multiplyExact(unitPriceCents, (long) merged);
+            totalCents = Math.addExact(totalCents - lineCents(position), lineCents);
+            itemCount += quantity;
+            quantities[position] = merged;
+            unitCents[position] = unitPriceCents;
+            return;
+        }
+        long lineCents = Math.multiplyExact(unitPriceCents, (long) quantity);
+        if (size == ids.length) {
+            allocate(ids.length * 2);
+        }
+        ids[size] = id;
+        quantities[size] = quantity;
+        unitCents[size] = unitPriceCents;
+        insertIndex(id, size);
+        size++;
+        totalCents = Math.addExact(totalCents, lineCents);
+        itemCount += quantity;
+    }
+
+    /**
+     * Add all lines of another cart, in its order, as if each was added with {@link #add}.
+     */
+    public void addAll(CompactCart other) {
+        for (int position = 0; position < other.size; position++) {
+            add(other.ids[position], other.quantities[position], other.unitCents[position]);
+        }
+    }
+
+    /**
+     * Set the quantity of an existing line; a quantity below 1 removes the line.
+     *
+     * @return false if the beverage isn't in the cart
+     */
+    public boolean update(long id, int quantity) {
+        int position = find(id);
+        if (position < 0) {
+            return false;
+        }
+        if (quantity < 1) {
+            removeAt(position);
+        } else {
+            long lineCents = Math.multiplyExact(unitCents[position], (long) quantity);
+            totalCents = Math.addExact(totalCents - lineCents(position), lineCents);
+            itemCount += quantity - quantities[position];
+            quantities[position] = quantity;
+        }
+        return true;
+    }
+
+    /**
+     * Replace the price snapshot of a line.
+     *
+     * @return false if the beverage isn't in the cart
+     */
+    public boolean reprice(long id, long unitPriceCents) {
+        if (unitPriceCents < 0) {
+            throw new IllegalArgumentException("Price can not be negative");
+        }
+        int position = find(id);
+        if (position < 0) {
+            return false;
+        }
+        long lineCents = Math.multiplyExact(unitPriceCents, (long) quantities[position]);
+        totalCents = Math.addExact(totalCents - lineCents(position), lineCents);
+        unitCents[position] = unitPriceCents;
+        return true;
+    }
+
+    /**
+     * @return false if the beverage isn't in the cart
+     */
+    public boolean remove(long id) {
+        int position = find(id);
+        if (position < 0) {
+            return false;
+        }
+        removeAt(position);
+        return true;
+    }
+
+    public void clear() {
+        size = 0;
+        totalCents = 0;
+        itemCount = 0;
+        Arrays.fill(index, 0);
+    }
+
+    private long lineCents(int position) {
+        return unitCents[position] * quantities[position];
+    }
+
+    private void removeAt(int position) {
+        totalCents -= lineCents(position);
+        itemCount -= quantities[position];
+        int tail = size - position - 1;
+        System.arraycopy(ids, position + 1, ids, position, tail);
+        System.arraycopy(quantities, position + 1, quantities, position, tail);
+        System.arraycopy(unitCents, position + 1, unitCents, position, tail);
+        size--;
+        // positions behind the removed line moved, so the index is rebuilt; carts are small
+        rebuildIndex();
+    }
+
+    private int find(long id) {
+        int mask = index.length - 1;
+        for (int slot = slotOf(id, mask); ; slot = (slot + 1) & mask) {
+            int entry = index[slot];
+            if (entry == 0) {
+                return -1;
+            }
+            if (ids[entry - 1] == id) {
+                return entry - 1;
+            }
+        }
+    }
+
+    private void insertIndex(long id, int position) {
+        int mask = index.length - 1;
+        int slot = slotOf(id, mask);
+        while (index[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        index[slot] = position + 1;
+    }
+
+    private void rebuildIndex() {
+        Arrays.fill(index, 0);
+        for (int position = 0; position < size; position++) {
+            insertIndex(ids[position], position);
+        }
+    }
+
+    private static int slotOf(long id, int mask) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        ids = ids == null ? new long[capacity] : Arrays.copyOf(ids, capacity);
+        quantities = quantities == null ? new int[capacity] : Arrays.copyOf(quantities, capacity);
+        unitCents = unitCents == null ? new long[capacity] : Arrays.copyOf(unitCents, capacity);
+        index = new int[Integer.highestOneBit(capacity) * 4];
+        rebuildIndex();
+    }
+
+    private void checkPosition(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException(position);
+        }
+    }
+
+    /**
+     * Compact binary form: a format version, the line count, then per line the id, quantity and unit cents
+     * as variable-length integers. A typical line takes 4-6 bytes.
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(2 + size * 6);
+        bytes.write(FORMAT_VERSION);
+        writeVarLong(bytes, size);
+        for (int position = 0; position < size; position++) {
+            // zig-zag, so negative ids don't take ten bytes
+            writeVarLong(bytes, (ids[position] << 1) ^ (ids[position] >> 63));
+            writeVarLong(bytes, quantities[position]);
+            writeVarLong(bytes, unitCents[position]);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Read a cart written by {@link #toBytes()}.
+     *
+     * @throws IllegalArgumentException if the data is truncated, of an unknown version or inconsistent
+     */
+    public static CompactCart fromBytes(byte[] data) {
+        ByteBuffer in = ByteBuffer.wrap(data);
+        try {
+            int version = in.get();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unknown cart format " + version);
+            }
+            long lines = readVarLong(in);
+            if (lines < 0 || lines > in.remaining()) {
+                throw new IllegalArgumentException("Corrupt cart: " + lines + " lines");
+            }
+            CompactCart cart = new CompactCart();
+            for (long line = 0; line < lines; line++) {
+                long zigzag = readVarLong(in);
+                long id = (zigzag >>> 1) ^ -(zigzag & 1);
+                long quantity = readVarLong(in);
+                long cents = readVarLong(in);
+                if (quantity < 1 || quantity > Integer.MAX_VALUE || cents < 0 || cart.contains(id)) {
+                    throw new IllegalArgumentException("Corrupt cart line " + id + "x" + quantity + "@" + cents);
+                }
+                cart.add(id, (int) quantity, cents);
+            }
+            if (in.hasRemaining()) {
+                throw new IllegalArgumentException("Corrupt cart: trailing bytes");
+            }
+            return cart;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Corrupt cart: truncated", e);
+        }
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Corrupt cart: varint too long");
+    }
+
+    @Serial
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        byte[] data = toBytes();
+        out.writeInt(data.length);
+        out.write(data);
+    }
+
+    @Serial
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int length = in.readInt();
+        if (length < 2 || length > MAX_SERIALIZED_BYTES) {
+            throw new InvalidObjectException("Corrupt cart: " + length + " bytes");
+        }
+        byte[] data = new byte[length];
+        in.readFully(data);
+        CompactCart copy;
+        try {
+            copy = fromBytes(data);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidObjectException(e.getMessage());
+        }
+        ids = copy.ids;
+        quantities = copy.quantities;
+        unitCents = copy.unitCents;
+        index = copy.index;
+        size = copy.size;
+        totalCents = copy.totalCents;
+        itemCount = copy.itemCount;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("CompactCart[");
+        for (int position = 0; position < size; position++) {
+            if (position > 0) {
+                text.append(", ");
+            }
+            text.append(ids[position]).append('x').append(quantities[position])
+                    .append('@').append(unitCents[position]);
+        }
+        return text.append(']').toString();
+    }
+}
@@ -0,0 +1,91 @@
+package beverage_store.cart;
+
+import beverage_store.model.OrderItem;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The shopping cart as stored in the HTTP session: only the compact lines are serialized, so a session kept
+ * in an external store (see the shared-session profile) carries a few bytes per line. Loaded OrderItems are
+ * transient and only survive between requests when the session stays in memory.
+ * Once a user has signed in, the cart has an owner and is saved for that user as well.
+ * <p>
+ * Changes are made under {@link #lock()} rather than the cart's monitor: some of them load from the database
+ * while holding it, and a virtual thread blocking inside synchronized would pin its carrier thread.
+ */
+public class SessionCart implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final String id = UUID.randomUUID().toString();
+
+    private final CompactCart lines;
+
+    private transient List<OrderItem> items;
+
+    private String owner;
+
+    private transient ReentrantLock lock = new ReentrantLock();
+
+    public SessionCart() {
+        this(new CompactCart());
+    }
+
+    public SessionCart(CompactCart lines) {
+        this.lines = lines;
+    }
+
+    /**
+     * Random id the cart's stock reservations are held under; unlike the session id it survives login.
+     */
+    public String getId() {
+        return id;
+    }
+
+    public CompactCart getLines() {
+        return lines;
+    }
+
+    /**
+     * Username the cart is saved for, null for an anonymous cart.
+     */
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * Loaded items matching the current lines, or null if they have to be loaded.
+     */
+    public List<OrderItem> getItems() {
+        return items;
+    }
+
+    public void setItems(List<OrderItem> items) {
+        this.items = items;
+    }
+
+    public void lock() {
+        lock.lock();
+    }
+
+    public void unlock() {
+        lock.unlock();
+    }
+
+    @Serial
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        lock = new ReentrantLock();
+    }
+}
@@ -1,27 +1,48 @@
 package beverage_store.controller;
 
-import beverage_store.model.Beverage;
+import beverage_store.event.CatalogChangedEvent;
 import beverage_store.model.Bottle;
+import beverage_store.model.CatalogEntry;
+import beverage_store.model.CatalogPage;
+import beverage_store.model.CatalogSort;
 import beverage_store.model.Crate;
+import beverage_store.model.Facet;
+import beverage_store.model.FacetFilter;
 import beverage_store.model.OrderItemDTO;
-import beverage_store.repository.BeverageRepository;
+import beverage_store.model.SearchSuggestion;
 import beverage_store.repository.BottleRepository;
 import beverage_store.repository.CrateRepository;
+import beverage_store.service.BeverageSearchService;
+import beverage_store.service.CatalogCache;
+import beverage_store.service.CatalogFacetService;
+import beverage_store.service.CatalogFragmentCache;
+import beverage_store.service.CatalogService;
 import beverage_store.service.ShoppingCartService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.web.csrf.CsrfToken;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.MultiValueMap;
 import org.springframework.validation.Errors;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
-import java.util.Collections;
-import java.util.Comparator;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
 import java.util.List;
-import java.util.Objects;
 
 @Slf4j
 @Controller
@@ -29,37 +50,142 @@ import java.util.Objects;
 public class BeverageController {
 
     private final ShoppingCartService shoppingCartService;
-    private final BeverageRepository beverageRepository;
+    private final CatalogService catalogService;
     private final BottleRepository bottleRepository;
     private final CrateRepository crateRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BeverageSearchService searchService;
+    private final CatalogFacetService facetService;
+    private final CatalogCache catalogCache;
+    private final CatalogFragmentCache fragmentCache;
+
+    private static final int SEARCH_RESULT_LIMIT = 50;
+    private static final int AUTOCOMPLETE_LIMIT = 10;
+
+    // let browsers keep the page but revalidate it every time; the ETag makes that a 304
+    private static final String CATALOG_CACHE_CONTROL = "private, no-cache";
 
     public BeverageController(ShoppingCartService shoppingCartService,
-                              BeverageRepository beverageRepository,
+                              CatalogService catalogService,
+                              BeverageSearchService searchService,
+                              CatalogFacetService facetService,
+                              CatalogCache catalogCache,
+                              CatalogFragmentCache fragmentCache,
                               BottleRepository bottleRepository,
-                              CrateRepository crateRepository) {
+                              CrateRepository crateRepository,
+                              ApplicationEventPublisher eventPublisher) {
         this.shoppingCartService = shoppingCartService;
-        this.beverageRepository = beverageRepository;
+        this.catalogService = catalogService;
+        this.searchService = searchService;
+        this.facetService = facetService;
+        this.catalogCache = catalogCache;
+        this.fragmentCache = fragmentCache;
         this.bottleRepository = bottleRepository;
         this.crateRepository = crateRepository;
+        this.eventPublisher = eventPublisher;
     }
 
-    private static final Comparator<Beverage> BEVERAGE_ID_COMPARATOR =
-            Comparator.comparing(Beverage::getId, Comparator.nullsLast(Long::compareTo));
-
     @GetMapping
-    public String home(Model model) {
+    public String home(@RequestParam(required = false) String sort,
+                       @RequestParam(required = false) String after,
+                       @RequestParam(required = false) String before,
+                       @RequestParam(required = false) Integer size,
+                       @RequestParam MultiValueMap<String, String> params,
+                       HttpServletRequest request,
+                       HttpServletResponse response,
+                       WebRequest webRequest,
+                       Model model) {
+
+        int itemsInCart = itemsInCart();
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CATALOG_CACHE_CONTROL);
+        if (webRequest.checkNotModified(catalogETag(request, itemsInCart))) {
+            log.debug("** Catalog not modified for {}?{}", request.getRequestURI(), request.getQueryString());
+            return null;
+        }
+
+        FacetFilter filter = FacetFilter.fromParams(params);
+        log.info("** Client requested beverages (sort={}, after={}, before={}, filter={})", sort, after, before, filter);
+        CatalogPage page = this.catalogService.getPage(CatalogSort.fromParam(sort), filter, after, before, size);
+
+        model.addAttribute("beverages", page.getBeverages());
+        model.addAttribute("catalogTable", catalogTable(page.getBeverages(), request));
+        model.addAttribute("page", page);
+        model.addAttribute("filter", filter);
+        model.addAttribute("facets", this.facetService.getCounts(filter));
+        model.addAttribute("facetTypes", Facet.values());
+        model.addAttribute("nextUrl", catalogUrl(page, filter, page.getNextCursor(), null));
+        model.addAttribute("previousUrl", catalogUrl(page, filter, null, page.getPreviousCursor()));
+        model.addAttribute("item", new OrderItemDTO());
+        model.addAttribute("listofitems", itemsInCart);
+        return "beverages";
+    }
+
+    private int itemsInCart() {
+        return shoppingCartService.getLineCount();
+    }
+
+    /**
+     * Strong ETag over everything the catalog page depends on: catalog version, query, cart counter,
+     * session (it carries the CSRF token) and the signed-in user shown in the header.
+     */
+    private String catalogETag(HttpServletRequest request, int itemsInCart) {
+        HttpSession session = request.getSession(false);
+        Principal user = request.getUserPrincipal();
+        String state = catalogCache.getVersion()
+                + "|" + request.getRequestURI() + "?" + request.getQueryString()
+                + "|" + itemsInCart
+                + "|" + (session == null ? "" : session.getId())
+                + "|" + (user == null ? "" : user.getName());
+        return "\"" + DigestUtils.md5DigestAsHex(state.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
 
-        log.info("** Client requested all beverages");
-        List<Beverage> beverages = this.beverageRepository.findAll();
-        beverages.sort(BEVERAGE_ID_COMPARATOR);
+    private String catalogTable(List<CatalogEntry> beverages, HttpServletRequest request) {
+        CsrfToken csrf = (CsrfToken) request.getAttribute(CsrfToken.class.getName());
+        return fragmentCache.render(beverages, request.getContextPath(),
+                csrf == null ? "_csrf" : csrf.getParameterName(), csrf == null ? null : csrf.getToken());
+    }
 
-        model.addAttribute("beverages", beverages);
+    /**
+     * Link to a neighbouring page that keeps sort order, page size and facet selection.
+     */
+    private static String catalogUrl(CatalogPage page, FacetFilter filter, String after, String before) {
+        if (after == null && before == null) {
+            return null;
+        }
+        UriComponentsBuilder url = UriComponentsBuilder.fromPath("/beverages")
+                .queryParam("sort", page.getSort().toParam())
+                .queryParam("size", page.getPageSize());
+        filter.getSelected().forEach((facet, values) -> url.queryParam(facet.getParam(), values.toArray()));
+        if (after != null) {
+            url.queryParam("after", after);
+        } else {
+            url.queryParam("before", before);
+        }
+        return url.encode().build().toUriString();
+    }
+
+    @GetMapping("/search")
+    public String search(@RequestParam(name = "q", required = false) String query,
+                         HttpServletRequest request,
+                         Model model) {
+        log.info("** Client searched beverages for '{}'", query);
+        List<CatalogEntry> results = CatalogEntry.of(this.searchService.search(query, SEARCH_RESULT_LIMIT));
+
+        model.addAttribute("beverages", results);
+        model.addAttribute("catalogTable", catalogTable(results, request));
+        model.addAttribute("page", new CatalogPage(results, CatalogSort.NAME, SEARCH_RESULT_LIMIT, null, null));
+        model.addAttribute("query", query);
         model.addAttribute("item", new OrderItemDTO());
-        model.addAttribute("listofitems", shoppingCartService.getItemsInCart() == null
-                ? 0 : shoppingCartService.getItemsInCart().size());
+        model.addAttribute("listofitems", itemsInCart());
         return "beverages";
     }
 
+    @GetMapping("/autocomplete")
+    @ResponseBody
+    public List<SearchSuggestion> autocomplete(@RequestParam(name = "q", required = false) String query) {
+        return this.searchService.autocomplete(query, AUTOCOMPLETE_LIMIT);
+    }
+
     @GetMapping("/addnewbottle")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     public String addNewBottle(Model model) {
@@ -81,7 +207,8 @@ public class BeverageController {
         Double vp = newBottle.getVolumePercent();
         newBottle.setAlcoholic(Boolean.valueOf(vp != null && vp > 0.0));
 
-        this.bottleRepository.save(newBottle);
+        Bottle saved = this.bottleRepository.save(newBottle);
+        this.eventPublisher.publishEvent(CatalogChangedEvent.of(saved == null ? null : saved.getId()));
         return "redirect:/beverages";
     }
 
@@ -104,7 +231,8 @@ public class BeverageController {
             model.addAttribute("bottles", bottleRepository.findAll());
             return "addCrate";
         }
-        this.crateRepository.save(newCrate);
+        Crate saved = this.crateRepository.save(newCrate);
+        this.eventPublisher.publishEvent(CatalogChangedEvent.of(saved == null ? null : saved.getId()));
         return "redirect:/beverages";
     }
 }
@@ -0,0 +1,43 @@
+package beverage_store.controller;
+
+import beverage_store.model.CacheRegionStats;
+import beverage_store.model.CatalogCacheStats;
+import beverage_store.service.CatalogCache;
+import beverage_store.service.EntityCacheService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Read-only cache counters for administrators (JSON).
+ */
+@Slf4j
+@RestController
+@RequestMapping("/admin/stats")
+@PreAuthorize("hasRole('ROLE_ADMIN')")
+public class CacheStatsController {
+
+    private final CatalogCache catalogCache;
+    private final EntityCacheService entityCacheService;
+
+    public CacheStatsController(CatalogCache catalogCache, EntityCacheService entityCacheService) {
+        this.catalogCache = catalogCache;
+        this.entityCacheService = entityCacheService;
+    }
+
+    @GetMapping("/catalog-cache")
+    public CatalogCacheStats catalogCache() {
+        log.info("Admin requested catalog cache statistics");
+        return catalogCache.getStats();
+    }
+
+    @GetMapping("/entity-cache")
+    public List<CacheRegionStats> entityCache() {
+        log.info("Admin requested second-level cache statistics");
+        return entityCacheService.getRegionStats();
+    }
+}
@@ -0,0 +1,121 @@
+package beverage_store.controller;
+
+import beverage_store.model.Beverage;
+import beverage_store.model.CartLineDTO;
+import beverage_store.model.CartSummary;
+import beverage_store.model.CartUpdateDTO;
+import beverage_store.model.OrderItem;
+import beverage_store.model.OrderItemDTO;
+import beverage_store.service.CatalogCache;
+import beverage_store.service.ShoppingCartService;
+import beverage_store.stock.InsufficientStockException;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON cart API used by the catalog and cart pages to change the cart without a redirect and a full page
+ * render. Every call answers with the new cart summary only. The pages keep working without JavaScript
+ * through the form endpoints of {@link ShoppingCartController}.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/cart")
+public class CartApiController {
+
+    private final ShoppingCartService shoppingCartService;
+    private final CatalogCache catalogCache;
+
+    public CartApiController(ShoppingCartService shoppingCartService, CatalogCache catalogCache) {
+        this.shoppingCartService = shoppingCartService;
+        this.catalogCache = catalogCache;
+    }
+
+    @GetMapping
+    public CartSummary summary() {
+        return CartSummary.of(shoppingCartService.getTotals(), null);
+    }
+
+    @PostMapping("/items")
+    public CartSummary addItem(@Valid @RequestBody OrderItemDTO item) {
+        log.debug("Add beverage {} x{} to the cart", item.getBeverageId(), item.getQuantity());
+        Beverage beverage = catalogCache.findById(item.getBeverageId())
+                .orElseThrow(() -> notFound(List.of(item.getBeverageId())));
+        shoppingCartService.addItem(new OrderItem(beverage, item.getQuantity()));
+        return summary(item.getBeverageId());
+    }
+
+    /**
+     * Set the quantity of one line; 0 removes it.
+     */
+    @PutMapping("/items")
+    public CartSummary updateItem(@Valid @RequestBody CartLineDTO line) {
+        log.debug("Set beverage {} to x{} in the cart", line.getBeverageId(), line.getQuantity());
+        requireKnown(List.of(line.getBeverageId()));
+        shoppingCartService.updateQuantities(Map.of(line.getBeverageId(), line.getQuantity()));
+        return summary(line.getBeverageId());
+    }
+
+    /**
+     * Set the quantities of several lines at once, see {@link ShoppingCartController#updateAll}.
+     */
+    @PutMapping
+    public CartSummary updateAll(@Valid @RequestBody CartUpdateDTO update) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (CartLineDTO line : update.getLines()) {
+            quantities.put(line.getBeverageId(), line.getQuantity());
+        }
+        requireKnown(quantities.keySet());
+        shoppingCartService.updateQuantities(quantities);
+        return summary();
+    }
+
+    @DeleteMapping("/items/{id}")
+    public CartSummary removeItem(@PathVariable long id) {
+        log.debug("Remove beverage {} from the cart", id);
+        shoppingCartService.updateQuantities(Map.of(id, 0));
+        return summary();
+    }
+
+    /**
+     * The cart is unchanged; the answer names the beverages that are short.
+     */
+    @ExceptionHandler(InsufficientStockException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Map<String, Object> insufficientStock(InsufficientStockException e) {
+        return Map.of("error", "insufficient-stock", "beverageIds", e.getBeverageIds());
+    }
+
+    private CartSummary summary(long beverageId) {
+        return CartSummary.of(shoppingCartService.getTotals(), shoppingCartService.getLine(beverageId).orElse(null));
+    }
+
+    private void requireKnown(Collection<Long> ids) {
+        Map<Long, Beverage> beverages = catalogCache.findAllById(ids);
+        List<Long> unknown = ids.stream().filter(id -> !beverages.containsKey(id)).toList();
+        if (!unknown.isEmpty()) {
+            throw notFound(unknown);
+        }
+    }
+
+    private static ResponseStatusException notFound(List<Long> ids) {
+        log.warn("Cart API: unknown beverage ids {}", ids);
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Beverage not found: " + ids);
+    }
+}
@@ -0,0 +1,38 @@
+package beverage_store.controller;
+
+import beverage_store.model.CartStats;
+import beverage_store.service.CartAnalyticsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+/**
+ * Shopping cart statistics for administrators (JSON).
+ */
+@Slf4j
+@RestController
+@RequestMapping("/admin/stats")
+@PreAuthorize("hasRole('ROLE_ADMIN')")
+public class CartStatsController {
+
+    private final CartAnalyticsService cartAnalytics;
+
+    public CartStatsController(CartAnalyticsService cartAnalytics) {
+        this.cartAnalytics = cartAnalytics;
+    }
+
+    /**
+     * Statistics of the last days, today included (1..366).
+     */
+    @GetMapping("/carts")
+    public CartStats carts(@RequestParam(defaultValue = "30") int days) {
+        log.info("Admin requested cart statistics of {} days", days);
+        LocalDate today = LocalDate.now();
+        return cartAnalytics.getStats(today.minusDays(Math.min(366, Math.max(1, days)) - 1L), today);
+    }
+}
@@ -0,0 +1,45 @@
+package beverage_store.controller;
+
+import beverage_store.service.CatalogCache;
+import beverage_store.service.CatalogExportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Public JSON feed of the catalog for partner systems and mobile clients.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/beverages")
+public class CatalogApiController {
+
+    private final CatalogExportService exportService;
+    private final CatalogCache catalogCache;
+
+    public CatalogApiController(CatalogExportService exportService, CatalogCache catalogCache) {
+        this.exportService = exportService;
+        this.catalogCache = catalogCache;
+    }
+
+    /**
+     * All bottles and crates as a JSON array, written while the rows are read.
+     * Answers 304 when nothing changed since If-Modified-Since.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> beverages(WebRequest webRequest) {
+        if (webRequest.checkNotModified(catalogCache.getLastModified().toEpochMilli())) {
+            log.debug("** Catalog feed not modified");
+            return null;
+        }
+        log.info("** Client requested the catalog feed");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(exportService::writeJson);
+    }
+}
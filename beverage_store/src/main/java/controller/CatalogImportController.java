@@ -0,0 +1,55 @@
+package beverage_store.controller;
+
+import beverage_store.model.ImportFormat;
+import beverage_store.model.ImportReport;
+import beverage_store.service.CatalogImportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Bulk upload of bottles and crates (CSV or JSON) for administrators.
+ */
+@Slf4j
+@Controller
+@RequestMapping("/admin/import")
+@PreAuthorize("hasRole('ROLE_ADMIN')")
+public class CatalogImportController {
+
+    private final CatalogImportService catalogImportService;
+
+    public CatalogImportController(CatalogImportService catalogImportService) {
+        this.catalogImportService = catalogImportService;
+    }
+
+    @GetMapping
+    public String importForm() {
+        log.info("** Admin wants to import the catalog");
+        return "importCatalog";
+    }
+
+    @PostMapping
+    public String importCatalog(@RequestParam("file") MultipartFile file, Model model) throws IOException {
+        if (file.isEmpty()) {
+            model.addAttribute("error", "Please choose a CSV or JSON file");
+            return "importCatalog";
+        }
+        ImportFormat format = ImportFormat.fromFilename(file.getOriginalFilename());
+        log.info("** Admin imports {} ({} bytes) as {}", file.getOriginalFilename(), file.getSize(), format);
+
+        try (InputStream in = file.getInputStream()) {
+            ImportReport report = catalogImportService.importCatalog(in, format);
+            model.addAttribute("report", report);
+        }
+        return "importCatalog";
+    }
+}
@@ -1,51 +1,51 @@
 package beverage_store.controller;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import beverage_store.images.ThumbnailSize;
+import beverage_store.images.ThumbnailUrls;
 import beverage_store.model.*;
 import beverage_store.repository.OrderRepository;
-import beverage_store.service.BeverageService;
 import beverage_store.service.ShoppingCartService;
 import beverage_store.service.UserService;
+import beverage_store.stock.InsufficientStockException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.*;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.regex.Pattern;
 
 @Slf4j
 @Controller
 @RequestMapping(value = "/shoppingcart/checkout")
 public class CheckOutController {
 
+    /**
+     * Checkout keys are issued as UUIDs with the confirmation page.
+     */
+    private static final Pattern CHECKOUT_KEY = Pattern.compile("[A-Za-z0-9-]{1,64}");
+
     private final OrderRepository orderRepository;
     private final ShoppingCartService shoppingCartService;
     private final UserService userService;
-    private final BeverageService beverageService;
-    private final RestTemplate restTemplate;
-    private final ObjectMapper objectMapper;
+    private final ThumbnailUrls thumbnails;
 
     @Autowired
     public CheckOutController(OrderRepository orderRepository,
                               ShoppingCartService shoppingCartService,
                               UserService userService,
-                              BeverageService beverageService,
-                              RestTemplate restTemplate,
-                              ObjectMapper objectMapper) {
+                              ThumbnailUrls thumbnails) {
         this.orderRepository = orderRepository;
         this.shoppingCartService = shoppingCartService;
         this.userService = userService;
-        this.beverageService = beverageService;
-        this.restTemplate = restTemplate;
-        this.objectMapper = objectMapper;
+        this.thumbnails = thumbnails;
     }
 
     @GetMapping(value = "/{orderid}")
@@ -81,7 +81,8 @@ public class CheckOutController {
     }
 
     @PostMapping
-    public String completePurchase(Model model) {
+    public String completePurchase(@RequestParam(name = "idempotencyKey", required = false) String idempotencyKey,
+                                   Model model, RedirectAttributes ra) {
         log.info("User confirmed the order");
 
         org.springframework.security.core.Authentication auth = userService.getCurrentUser();
@@ -91,20 +92,50 @@ public class CheckOutController {
         }
 
         String username = auth.getName();
-        User orderingUser = userService.getUser(username);
-        if (orderingUser == null) {
+        if (idempotencyKey != null && !CHECKOUT_KEY.matcher(idempotencyKey).matches()) {
+            model.addAttribute("message", "Invalid checkout request.");
+            return "error";
+        }
+        // a repeated submit of the same checkout form shows the order it already placed
+        if (idempotencyKey != null) {
+            Optional<Long> placed = orderRepository.findIdByIdempotencyKey(idempotencyKey, username);
+            if (placed.isPresent()) {
+                log.info("Checkout key of {} already used for order {}", username, placed.get());
+                return "redirect:/shoppingcart/checkout/" + placed.get();
+            }
+        }
+
+        // only what the order needs; the user's order history isn't loaded
+        Optional<CheckoutCustomer> customer = userService.getCheckoutCustomer(username);
+        if (customer.isEmpty()) {
             model.addAttribute("message", "User not found.");
             return "error";
         }
 
+        // prices and stock as stored now; the customer confirms again if anything had to change
+        List<CartChange> changes = shoppingCartService.revalidate();
+        if (!changes.isEmpty()) {
+            log.info("Cart of {} changed on revalidation, back to review", username);
+            ra.addFlashAttribute("changes", changes);
+            return "redirect:/shoppingcart";
+        }
+
         List<OrderItem> listOfItems = shoppingCartService.getItemsInCart();
         if (listOfItems == null || listOfItems.isEmpty()) {
+            // a concurrent submit with the same key may have placed the order and emptied the cart since the lookup
+            Optional<Long> placed = idempotencyKey == null ? Optional.empty()
+                    : orderRepository.findIdByIdempotencyKey(idempotencyKey, username);
+            if (placed.isPresent()) {
+                log.info("Cart of {} emptied by the checkout with the same key, showing order {}", username, placed.get());
+                return "redirect:/shoppingcart/checkout/" + placed.get();
+            }
             model.addAttribute("message", "Shopping cart is empty.");
             return "error";
         }
 
         Order newOrder = new Order();
-        newOrder.setCustomer(orderingUser);
+        newOrder.setCustomer(userService.getUserReference(username));
+        newOrder.setIdempotencyKey(idempotencyKey);
         // Add items (addOrderItem will set order relationship and recalc item price)
         listOfItems.forEach(newOrder::addOrderItem);
 
@@ -112,18 +143,6 @@ public class CheckOutController {
         java.math.BigDecimal totalPrice = newOrder.priceTotal(listOfItems);
         newOrder.setTotalPrice(totalPrice);
 
-        // Persist order
-        orderRepository.save(newOrder);
-
-        // Update beverage stock quantities
-        for (OrderItem oi : listOfItems) {
-            if (oi == null || oi.getBeverage() == null || oi.getBeverage().getId() == null) continue;
-            int orderedQuantity = oi.getQuantity();
-            int beverageQuantity = oi.getBeverage().getInStock();
-            Long beverageID = oi.getBeverage().getId();
-            beverageService.updateBeverageQuantity(beverageID, beverageQuantity - orderedQuantity);
-        }
-
         // Build DTO for PDF generation
         OrderDTO orderDTO = new OrderDTO();
         List<OrderListDTO> orderListDTO = new ArrayList<>();
@@ -132,41 +151,34 @@ public class CheckOutController {
                     oi.getPrice().doubleValue(),
                     oi.getQuantity(),
                     oi.getBeverage() == null ? null : oi.getBeverage().getName(),
-                    oi.getBeverage() == null ? null : oi.getBeverage().getPic(),
+                    oi.getBeverage() == null ? null : pdfImageUrl(oi.getBeverage()),
                     oi.getBeverage() == null ? null : oi.getBeverage().getId()
             ));
         }
-        orderDTO.setId(newOrder.getId());
         orderDTO.setTotalPrice(totalPrice);
         orderDTO.setListOfItems(orderListDTO);
-        orderDTO.setUserEmail(orderingUser.getEmail());
-
-        // Safely get postal code from delivery addresses (guard nulls)
-        String postalCode = null;
-        // field in User is `deliveryaddresses` so use corresponding getter
-        if (orderingUser.getDeliveryaddresses() != null && !orderingUser.getDeliveryaddresses().isEmpty()) {
-            Address addr = orderingUser.getDeliveryaddresses().iterator().next();
-            if (addr != null) postalCode = addr.getPostalCode();
-        }
-        orderDTO.setPostalCode(postalCode);
+        orderDTO.setUserEmail(customer.get().email());
+        orderDTO.setPostalCode(customer.get().postalCode());
 
         orderDTO.setTimestamp(Instant.now().toString());
 
-        // Call PDF generator function (external)
-        String endPoint = "http://localhost:8081/";
+        // Persist order together with the stock decrements and the PDF request (sent later by the outbox
+        // dispatcher); nothing is kept if a line is short
         try {
-            String orderJson = objectMapper.writeValueAsString(orderDTO);
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<String> request = new HttpEntity<>(orderJson, headers);
-            ResponseEntity<String> response = restTemplate.exchange(endPoint, HttpMethod.POST, request, String.class);
-            if (response.getStatusCode() == HttpStatus.OK) {
-                log.info("pdf Function invoked successfully from CheckOut Controller");
-            } else {
-                log.warn("pdf Function invocation returned status {}", response.getStatusCode());
+            newOrder = shoppingCartService.placeOrder(newOrder, orderDTO);
+        } catch (InsufficientStockException e) {
+            log.info("Checkout of {} stopped, not enough stock for {}", username, e.getBeverageIds());
+            model.addAttribute("message", "Sorry, some items in your cart are no longer in stock. Please review your cart.");
+            return "error";
+        } catch (DataIntegrityViolationException e) {
+            // a concurrent submit with the same key got there first and its order is committed
+            Optional<Long> placed = idempotencyKey == null ? Optional.empty()
+                    : orderRepository.findIdByIdempotencyKey(idempotencyKey, username);
+            if (placed.isEmpty()) {
+                throw e;
             }
-        } catch (JsonProcessingException | RestClientException e) {
-            log.warn("Failed to invoke pdf generator: {}", e.getMessage());
+            log.info("Concurrent checkout of {} with the same key, showing order {}", username, placed.get());
+            return "redirect:/shoppingcart/checkout/" + placed.get();
         }
 
         // Clear cart and redirect to summary
@@ -174,6 +186,13 @@ public class CheckOutController {
         log.info("shopping cart cleared");
         return "redirect:/shoppingcart/checkout/" + newOrder.getId();
     }
-}
-
 
+    /**
+     * The PDF shows pictures 100px wide, so point the generator at our small thumbnail
+     * instead of the full-size original.
+     */
+    private String pdfImageUrl(Beverage beverage) {
+        String thumbnail = thumbnails.url(beverage.getId(), beverage.getPic(), ThumbnailSize.ORDER.getParam());
+        return thumbnail == null ? null : ServletUriComponentsBuilder.fromCurrentContextPath().toUriString() + thumbnail;
+    }
+}
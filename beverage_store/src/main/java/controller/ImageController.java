@@ -0,0 +1,75 @@
+package beverage_store.controller;
+
+import beverage_store.images.ThumbnailRenderer.Thumbnail;
+import beverage_store.images.ThumbnailSize;
+import beverage_store.images.ThumbnailUrls;
+import beverage_store.model.Beverage;
+import beverage_store.service.CatalogCache;
+import beverage_store.service.ThumbnailService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Serves product thumbnails from the local cache instead of hotlinking full-size photos.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/images/beverages")
+public class ImageController {
+
+    // links carry a fingerprint of the picture URL, so a response never changes for its URL
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+    private final CatalogCache catalogCache;
+    private final ThumbnailService thumbnailService;
+
+    public ImageController(CatalogCache catalogCache, ThumbnailService thumbnailService) {
+        this.catalogCache = catalogCache;
+        this.thumbnailService = thumbnailService;
+    }
+
+    @GetMapping("/{id}/{size}")
+    public ResponseEntity<byte[]> thumbnail(@PathVariable Long id,
+                                            @PathVariable String size,
+                                            @RequestParam(name = "v", required = false) String fingerprint) {
+        ThumbnailSize thumbnailSize = ThumbnailSize.fromParam(size);
+        String pic = thumbnailSize == null ? null : catalogCache.findById(id).map(Beverage::getPic).orElse(null);
+        if (pic == null || pic.isBlank()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        String current = ThumbnailUrls.fingerprint(pic);
+        if (!current.equals(fingerprint)) {
+            // link rendered before the picture changed
+            URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                    .path("/images/beverages/{id}/{size}").queryParam("v", current)
+                    .buildAndExpand(id, size).toUri();
+            return ResponseEntity.status(HttpStatus.FOUND).cacheControl(CacheControl.noStore()).location(location).build();
+        }
+
+        try {
+            Thumbnail thumbnail = thumbnailService.getThumbnail(pic, thumbnailSize);
+            return ResponseEntity.ok()
+                    .cacheControl(IMMUTABLE)
+                    .eTag(current + "-" + size)
+                    .contentType("png".equals(thumbnail.extension()) ? MediaType.IMAGE_PNG : MediaType.IMAGE_JPEG)
+                    .body(thumbnail.data());
+        } catch (IOException e) {
+            log.warn("Thumbnail of beverage {} unavailable, sending the original: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.FOUND).cacheControl(CacheControl.noStore()).location(URI.create(pic)).build();
+        }
+    }
+}
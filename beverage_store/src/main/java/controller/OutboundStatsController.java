@@ -0,0 +1,31 @@
+package beverage_store.controller;
+
+import beverage_store.model.OutboundCallStats;
+import beverage_store.outbound.OutboundGuard;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Outbound HTTP client counters for administrators (JSON).
+ */
+@Slf4j
+@RestController
+@RequestMapping("/admin/stats")
+@PreAuthorize("hasRole('ROLE_ADMIN')")
+public class OutboundStatsController {
+
+    private final OutboundGuard outboundGuard;
+
+    public OutboundStatsController(OutboundGuard outboundGuard) {
+        this.outboundGuard = outboundGuard;
+    }
+
+    @GetMapping("/outbound")
+    public OutboundCallStats outbound() {
+        log.info("Admin requested outbound call statistics");
+        return outboundGuard.getStats();
+    }
+}
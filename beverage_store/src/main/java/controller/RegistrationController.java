@@ -8,8 +8,10 @@ import beverage_store.model.UserDTO;
 import beverage_store.service.UserService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.event.InteractiveAuthenticationSuccessEvent;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -32,12 +34,15 @@ public class RegistrationController {
     private final UserService userService;
     private final UserRepository userRepo;
     private final AuthenticationManager authenticationManager;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public RegistrationController(UserRepository userRepo, UserService userService, AuthenticationManager authenticationManager) {
+    public RegistrationController(UserRepository userRepo, UserService userService, AuthenticationManager authenticationManager,
+                                  ApplicationEventPublisher eventPublisher) {
         this.userRepo = userRepo;
         this.userService = userService;
         this.authenticationManager = authenticationManager;
+        this.eventPublisher = eventPublisher;
     }
 
     @GetMapping
@@ -90,6 +95,10 @@ public class RegistrationController {
         try {
             Authentication authenticatedUser = authenticationManager.authenticate(token);
             SecurityContextHolder.getContext().setAuthentication(authenticatedUser);
+            if (authenticatedUser != null) {
+                // same event as a form login, so the cart picked before registering is saved for the new user
+                eventPublisher.publishEvent(new InteractiveAuthenticationSuccessEvent(authenticatedUser, getClass()));
+            }
             return "redirect:/beverages";
         } catch (AuthenticationException ex) {
             log.warn("Auto-login after registration failed for {}: {}", username, ex.getMessage());
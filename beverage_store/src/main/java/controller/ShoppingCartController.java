@@ -1,10 +1,14 @@
 package beverage_store.controller;
 
 import beverage_store.model.Beverage;
+import beverage_store.model.CartLineDTO;
+import beverage_store.model.CartTotals;
+import beverage_store.model.CartUpdateDTO;
 import beverage_store.model.OrderItem;
 import beverage_store.model.OrderItemDTO;
-import beverage_store.repository.BeverageRepository;
+import beverage_store.service.CatalogCache;
 import beverage_store.service.ShoppingCartService;
+import beverage_store.stock.InsufficientStockException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
@@ -18,6 +22,9 @@ import org.springframework.web.servlet.ModelAndView;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import jakarta.validation.Valid;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RequestMapping("/shoppingcart")
@@ -25,14 +32,16 @@ import java.util.Optional;
 @Controller
 public class ShoppingCartController {
 
+    private static final String NOT_ENOUGH_STOCK = "Sorry, there isn't enough left in stock for that quantity";
+
     private final ShoppingCartService shoppingCartService;
-    private final BeverageRepository beverageRepository;
+    private final CatalogCache catalogCache;
 
     @Autowired
     public ShoppingCartController(ShoppingCartService shoppingCartService,
-                                  BeverageRepository beverageRepository) {
+                                  CatalogCache catalogCache) {
         this.shoppingCartService = shoppingCartService;
-        this.beverageRepository = beverageRepository;
+        this.catalogCache = catalogCache;
     }
 
     //Show items in the cart
@@ -41,8 +50,10 @@ public class ShoppingCartController {
         ModelAndView modelAndview = new ModelAndView("reviewCart");
         log.info("Review Shopping Cart");
         modelAndview.addObject("update", new OrderItemDTO());
+        CartTotals totals = shoppingCartService.getTotals();
         modelAndview.addObject("items", shoppingCartService.getItemsInCart());
-        modelAndview.addObject("total", shoppingCartService.getTotal());
+        modelAndview.addObject("totals", totals);
+        modelAndview.addObject("total", totals.total().toBigDecimal());
         return modelAndview;
     }
 
@@ -56,14 +67,19 @@ public class ShoppingCartController {
             return "redirect:/beverages";
         }
 
-        Optional<Beverage> beverage = beverageRepository.findById(item.getBeverageId());
+        Optional<Beverage> beverage = catalogCache.findById(item.getBeverageId());
         if (beverage.isEmpty()) {
             log.warn("Tried to add unknown beverage id {}", item.getBeverageId());
             ra.addFlashAttribute("error", "Beverage not found");
             return "redirect:/beverages";
         }
 
-        shoppingCartService.addItem(new OrderItem(beverage.get(), item.getQuantity()));
+        try {
+            shoppingCartService.addItem(new OrderItem(beverage.get(), item.getQuantity()));
+        } catch (InsufficientStockException e) {
+            log.info("Not enough stock to add {} x{}", item.getBeverageId(), item.getQuantity());
+            ra.addFlashAttribute("error", NOT_ENOUGH_STOCK);
+        }
         return "redirect:/beverages";
     }
 
@@ -77,14 +93,56 @@ public class ShoppingCartController {
             return "redirect:/shoppingcart";
         }
 
-        Optional<Beverage> beverage = beverageRepository.findById(item.getBeverageId());
+        Optional<Beverage> beverage = catalogCache.findById(item.getBeverageId());
         if (beverage.isEmpty()) {
             log.warn("Tried to update unknown beverage id {}", item.getBeverageId());
             ra.addFlashAttribute("error", "Beverage not found");
             return "redirect:/shoppingcart";
         }
 
-        shoppingCartService.updateItem(new OrderItem(beverage.get(), item.getQuantity()));
+        try {
+            shoppingCartService.updateItem(new OrderItem(beverage.get(), item.getQuantity()));
+        } catch (InsufficientStockException e) {
+            ra.addFlashAttribute("error", NOT_ENOUGH_STOCK);
+        }
+        return "redirect:/shoppingcart";
+    }
+
+    /**
+     * Apply the whole cart form at once: all beverages are looked up together, and the cart changes only if
+     * every line is valid.
+     */
+    @PostMapping("/update-all")
+    public String updateAll(@Valid CartUpdateDTO update, BindingResult bindingResult, RedirectAttributes ra) {
+        log.info("Update {} cart lines", update.getLines().size());
+        if (bindingResult.hasErrors()) {
+            log.warn("Invalid CartUpdateDTO: {}", bindingResult.getAllErrors());
+            ra.addFlashAttribute("error", "Invalid update data");
+            return "redirect:/shoppingcart";
+        }
+
+        // a beverage listed twice takes the last quantity
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (CartLineDTO line : update.getLines()) {
+            quantities.put(line.getBeverageId(), line.getQuantity());
+        }
+
+        Map<Long, Beverage> beverages = catalogCache.findAllById(quantities.keySet());
+        List<Long> unknown = quantities.keySet().stream().filter(id -> !beverages.containsKey(id)).toList();
+        if (!unknown.isEmpty()) {
+            log.warn("Tried to update unknown beverage ids {}", unknown);
+            ra.addFlashAttribute("error", "Beverage not found");
+            return "redirect:/shoppingcart";
+        }
+
+        try {
+            shoppingCartService.updateQuantities(quantities);
+        } catch (InsufficientStockException e) {
+            log.info("Not enough stock for {}", e.getBeverageIds());
+            ra.addFlashAttribute("error", NOT_ENOUGH_STOCK);
+            return "redirect:/shoppingcart";
+        }
+        ra.addFlashAttribute("message", "Cart updated");
         return "redirect:/shoppingcart";
     }
 
@@ -92,7 +150,7 @@ public class ShoppingCartController {
     public String deleteItem(@PathVariable Long id, RedirectAttributes ra) {
         log.info("Deleting OrderItem from cart (beverage id {})", id);
 
-        Optional<Beverage> beverage = beverageRepository.findById(id);
+        Optional<Beverage> beverage = catalogCache.findById(id);
         if (beverage.isEmpty()) {
             log.warn("Tried to delete unknown beverage id {}", id);
             ra.addFlashAttribute("error", "Beverage not found");
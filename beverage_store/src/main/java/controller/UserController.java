@@ -17,6 +17,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
 
 @Slf4j
 @Controller
@@ -68,6 +69,9 @@ public class UserController {
             model.addAttribute("message", "Please log in.");
             return "error";
         }
+        // the checkout form below the address: a fresh key per page, so submitting it twice places one order
+        model.addAttribute("items", shoppingCartService.getItemsInCart());
+        model.addAttribute("checkoutKey", UUID.randomUUID().toString());
         return loadUsersIntoModel(model, userauth.getName());
     }
 
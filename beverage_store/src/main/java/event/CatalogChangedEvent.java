@@ -0,0 +1,33 @@
+package beverage_store.event;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Published by every write path of the catalog (new bottles/crates, stock changes).
+ * Listeners use it to invalidate whatever they derived from the catalog.
+ *
+ * @param beverageIds ids of the beverages that changed; empty means "anything may have changed"
+ */
+public record CatalogChangedEvent(Set<Long> beverageIds) {
+
+    public CatalogChangedEvent {
+        beverageIds = beverageIds == null ? Set.of() : Set.copyOf(beverageIds);
+    }
+
+    public static CatalogChangedEvent of(Long beverageId) {
+        return new CatalogChangedEvent(beverageId == null ? Set.of() : Set.of(beverageId));
+    }
+
+    public static CatalogChangedEvent of(Collection<Long> beverageIds) {
+        return new CatalogChangedEvent(Set.copyOf(beverageIds));
+    }
+
+    public static CatalogChangedEvent all() {
+        return new CatalogChangedEvent(Set.of());
+    }
+
+    public boolean isFullRefresh() {
+        return beverageIds.isEmpty();
+    }
+}
@@ -0,0 +1,167 @@
+package beverage_store.images;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Files in one directory, named by key plus extension, evicted least recently used first once their
+ * total size exceeds the limit. Recency survives restarts through the files' modification times.
+ */
+@Slf4j
+public class DiskLruCache {
+
+    private record Entry(Path file, long size) {
+    }
+
+    private final Path directory;
+    private final long maxBytes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    public DiskLruCache(Path directory, long maxBytes) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.maxBytes = Math.max(1, maxBytes);
+        load();
+    }
+
+    public Optional<Path> get(String key) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            touch(entry.file());
+            return Optional.of(entry.file());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Store a file; it is written to a temporary name first, so readers never see half a file.
+     */
+    public Path put(String key, String extension, byte[] data) throws IOException {
+        Path file = directory.resolve(key + "." + extension);
+        Path temp = Files.createTempFile(directory, key, ".tmp");
+        try {
+            Files.write(temp, data);
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        lock.lock();
+        try {
+            Entry previous = entries.put(key, new Entry(file, data.length));
+            totalBytes += data.length - (previous == null ? 0 : previous.size());
+            evict();
+        } finally {
+            lock.unlock();
+        }
+        return file;
+    }
+
+    public long getTotalBytes() {
+        lock.lock();
+        try {
+            return totalBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        // never evict the entry that was just added
+        while (totalBytes > maxBytes && entries.size() > 1 && it.hasNext()) {
+            Entry eldest = it.next().getValue();
+            it.remove();
+            totalBytes -= eldest.size();
+            deleteQuietly(eldest.file());
+        }
+    }
+
+    private void load() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(Files::isRegularFile)
+                    .sorted(Comparator.comparing(DiskLruCache::lastModified))
+                    .forEach(file -> {
+                        String name = file.getFileName().toString();
+                        int dot = name.lastIndexOf('.');
+                        if (name.endsWith(".tmp")) {
+                            // left over from a write that didn't finish
+                            deleteQuietly(file);
+                            return;
+                        }
+                        if (dot <= 0) {
+                            return;
+                        }
+                        long size = sizeOf(file);
+                        entries.put(name.substring(0, dot), new Entry(file, size));
+                        totalBytes += size;
+                    });
+        }
+        evict();
+        log.info("Disk cache {}: {} files, {} bytes", directory, entries.size(), totalBytes);
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete cached file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // recency after a restart is best effort
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
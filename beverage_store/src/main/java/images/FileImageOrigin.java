@@ -0,0 +1,30 @@
+package beverage_store.images;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Stand-in origin that serves images from a local directory, looked up by the last path segment
+ * of the URL. Used for tests and offline development (images.origin.dir).
+ */
+public class FileImageOrigin implements ImageOrigin {
+
+    private final Path directory;
+
+    public FileImageOrigin(Path directory) {
+        this.directory = directory.toAbsolutePath().normalize();
+    }
+
+    @Override
+    public byte[] fetch(String url) throws IOException {
+        String path = URI.create(url).getPath();
+        String name = path == null ? "" : path.substring(path.lastIndexOf('/') + 1);
+        Path file = directory.resolve(name).normalize();
+        if (name.isEmpty() || !file.getParent().equals(directory) || !Files.isRegularFile(file)) {
+            throw new IOException("No local image for " + url);
+        }
+        return Files.readAllBytes(file);
+    }
+}
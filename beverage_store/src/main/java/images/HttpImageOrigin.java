@@ -0,0 +1,58 @@
+package beverage_store.images;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Fetches images from their third-party hosts, with timeouts and a size limit.
+ */
+@Slf4j
+public class HttpImageOrigin implements ImageOrigin {
+
+    private final HttpClient client;
+    private final Duration timeout;
+    private final int maxBytes;
+
+    public HttpImageOrigin(Duration timeout, int maxBytes) {
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        this.timeout = timeout;
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public byte[] fetch(String url) throws IOException {
+        URI uri = URI.create(url);
+        if (!"https".equalsIgnoreCase(uri.getScheme()) && !"http".equalsIgnoreCase(uri.getScheme())) {
+            throw new IOException("Unsupported image URL " + url);
+        }
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(timeout).GET().build();
+        HttpResponse<InputStream> response;
+        try {
+            response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while fetching " + url, e);
+        }
+        try (InputStream body = response.body()) {
+            if (response.statusCode() != 200) {
+                throw new IOException("Image origin answered " + response.statusCode() + " for " + url);
+            }
+            byte[] bytes = body.readNBytes(maxBytes + 1);
+            if (bytes.length > maxBytes) {
+                throw new IOException("Image larger than " + maxBytes + " bytes: " + url);
+            }
+            log.debug("Fetched {} bytes from {}", bytes.length, url);
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package beverage_store.images;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Image origin and thumbnail disk cache. Setting images.origin.dir replaces the remote hosts
+ * with a local directory.
+ */
+@Slf4j
+@Configuration
+public class ImageConfig {
+
+    @Bean
+    public ImageOrigin imageOrigin(@Value("${images.origin.dir:}") String originDir,
+                                   @Value("${images.origin.timeout-ms:5000}") long timeoutMs,
+                                   @Value("${images.origin.max-bytes:10485760}") int maxBytes) {
+        if (!originDir.isBlank()) {
+            log.info("Serving product images from local directory {}", originDir);
+            return new FileImageOrigin(Path.of(originDir));
+        }
+        return new HttpImageOrigin(Duration.ofMillis(timeoutMs), maxBytes);
+    }
+
+    @Bean
+    public DiskLruCache thumbnailDiskCache(@Value("${images.cache.dir:${java.io.tmpdir}/beverage-store/thumbnails}") String dir,
+                                           @Value("${images.cache.max-bytes:104857600}") long maxBytes) throws IOException {
+        return new DiskLruCache(Path.of(dir), maxBytes);
+    }
+}
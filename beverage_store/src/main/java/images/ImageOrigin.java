@@ -0,0 +1,16 @@
+package beverage_store.images;
+
+import java.io.IOException;
+
+/**
+ * Where original product images come from.
+ */
+public interface ImageOrigin {
+
+    /**
+     * Fetch the image behind a Beverage.pic URL.
+     *
+     * @throws IOException if the image can't be fetched or is larger than allowed
+     */
+    byte[] fetch(String url) throws IOException;
+}
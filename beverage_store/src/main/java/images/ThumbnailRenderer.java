@@ -0,0 +1,70 @@
+package beverage_store.images;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Scales images down to thumbnail size. Images with transparency become PNG, everything else JPEG.
+ */
+public final class ThumbnailRenderer {
+
+    /**
+     * Encoded thumbnail.
+     *
+     * @param extension "png" or "jpg"
+     */
+    public record Thumbnail(byte[] data, String extension) {
+    }
+
+    private ThumbnailRenderer() {
+    }
+
+    public static Thumbnail render(byte[] original, ThumbnailSize size) throws IOException {
+        BufferedImage source = ImageIO.read(new ByteArrayInputStream(original));
+        if (source == null) {
+            throw new IOException("Unsupported image format");
+        }
+        boolean alpha = source.getColorModel().hasAlpha();
+        double scale = Math.min(1.0, Math.min((double) size.getWidth() / source.getWidth(),
+                (double) size.getHeight() / source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage scaled = scale(source, width, height, alpha);
+        String extension = alpha ? "png" : "jpg";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (!ImageIO.write(scaled, alpha ? "png" : "jpeg", out)) {
+            throw new IOException("No image writer for " + extension);
+        }
+        return new Thumbnail(out.toByteArray(), extension);
+    }
+
+    /**
+     * Halve repeatedly before the last step; a single bilinear step from a large photo looks jagged.
+     */
+    private static BufferedImage scale(BufferedImage source, int width, int height, boolean alpha) {
+        BufferedImage current = source;
+        int w = source.getWidth();
+        int h = source.getHeight();
+        do {
+            w = Math.max(width, w / 2);
+            h = Math.max(height, h / 2);
+            BufferedImage next = new BufferedImage(w, h, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, w, h, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (w != width || h != height);
+        return current;
+    }
+}
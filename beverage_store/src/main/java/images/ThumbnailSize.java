@@ -0,0 +1,46 @@
+package beverage_store.images;
+
+/**
+ * Thumbnail sizes the templates use. Images are scaled to fit the box, keeping their aspect ratio.
+ */
+public enum ThumbnailSize {
+    /**
+     * Product table on the catalog page (130x150).
+     */
+    CATALOG("catalog", 130, 150),
+    /**
+     * Order summaries and the order PDF (100 wide, height follows).
+     */
+    ORDER("order", 100, 400);
+
+    private final String param;
+    private final int width;
+    private final int height;
+
+    ThumbnailSize(String param, int width, int height) {
+        this.param = param;
+        this.width = width;
+        this.height = height;
+    }
+
+    public String getParam() {
+        return param;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public static ThumbnailSize fromParam(String param) {
+        for (ThumbnailSize size : values()) {
+            if (size.param.equals(param)) {
+                return size;
+            }
+        }
+        return null;
+    }
+}
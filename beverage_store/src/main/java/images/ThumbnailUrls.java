@@ -0,0 +1,47 @@
+package beverage_store.images;
+
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Builds thumbnail links for templates ({@code ${@thumbnails.url(...)}}).
+ * Links carry a fingerprint of the original URL, so they change when the picture does
+ * and the responses can be cached for good.
+ */
+@Component("thumbnails")
+public class ThumbnailUrls {
+
+    /**
+     * Context-relative thumbnail link, or null when the beverage has no picture.
+     */
+    public String url(Long beverageId, String pic, String size) {
+        if (beverageId == null || pic == null || pic.isBlank() || ThumbnailSize.fromParam(size) == null) {
+            return null;
+        }
+        return "/images/beverages/" + beverageId + "/" + size + "?v=" + fingerprint(pic);
+    }
+
+    public static String fingerprint(String pic) {
+        return sha256(pic).substring(0, 16);
+    }
+
+    /**
+     * Cache key of a thumbnail: the original URL and the size, hashed.
+     */
+    public static String cacheKey(String pic, ThumbnailSize size) {
+        return sha256(size.getParam() + "|" + pic);
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,17 +1,33 @@
 package beverage_store.model;
 
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import java.math.BigDecimal;
 
+/**
+ * A bottle or crate of the catalog. Both share one table, so subclass columns stay nullable in the schema
+ * and their required fields are enforced with Bean Validation instead.
+ * Entities are cached in the "beverage" second-level cache region (see ehcache.xml); READ_WRITE keeps it in
+ * step with committed updates, writes that bypass the entity (bulk or native queries) are evicted through
+ * CatalogChangedEvent by EntityCacheService.
+ */
 @Data
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "beverage")
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 public abstract class Beverage {
+    /*
+     * Pooled sequence: one round-trip hands out 50 ids, so batched inserts don't wait on the sequence.
+     * Same name and increment Hibernate derives for AUTO, so existing databases keep their sequence.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "beverage_seq")
+    @SequenceGenerator(name = "beverage_seq", sequenceName = "beverage_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "Price is required")
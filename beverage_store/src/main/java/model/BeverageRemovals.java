@@ -0,0 +1,24 @@
+package beverage_store.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * How often a beverage was taken out of a shopping cart again, aggregated from cart events.
+ */
+@Entity
+@Table(name = "beverage_removals")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BeverageRemovals {
+
+    @Id
+    private Long beverageId;
+
+    private long removals;
+}
@@ -19,11 +19,10 @@ public class Bottle extends Beverage {
 
     @NotNull(message = "Volume is required")
     @DecimalMin(value = "0.0", inclusive = false, message = "Volume must be higher than 0")
-    @Column(nullable = false)
     private Double volume;
 
     @Builder.Default
-    @Column(name = "is_alcoholic", nullable = false)
+    @Column(name = "is_alcoholic")
     private Boolean alcoholic = Boolean.FALSE;
 
     @DecimalMin(value = "0.0", inclusive = true, message = "Volume percent must be >= 0")
@@ -32,7 +31,6 @@ public class Bottle extends Beverage {
     private Double volumePercent;
 
     @NotBlank(message = "Please enter Supplier")
-    @Column(nullable = false)
     private String supplier;
 
     /**
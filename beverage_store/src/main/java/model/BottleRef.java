@@ -0,0 +1,7 @@
+package beverage_store.model;
+
+/**
+ * Id and name of a bottle, enough to point a crate at it.
+ */
+public record BottleRef(Long id, String name) {
+}
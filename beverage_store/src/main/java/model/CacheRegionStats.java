@@ -0,0 +1,19 @@
+package beverage_store.model;
+
+/**
+ * Counters of one Hibernate second-level cache region since startup (or the last statistics reset).
+ *
+ * @param region  region name as configured in ehcache.xml
+ * @param kind    "entity" or "query"
+ * @param hits    lookups answered from the region
+ * @param misses  lookups that went to the database
+ * @param puts    entries written to the region
+ * @param entries entries currently held, or -1 if the provider doesn't report it
+ */
+public record CacheRegionStats(String region, String kind, long hits, long misses, long puts, long entries) {
+
+    public double hitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,45 @@
+package beverage_store.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Shopping cart counters of one day, aggregated from cart events. A cart counts as started on the day its
+ * first item was added, and as checked out or abandoned on the day that happened.
+ */
+@Entity
+@Table(name = "cart_activity")
+@Data
+@NoArgsConstructor
+public class CartActivity {
+
+    @Id
+    @Column(name = "activity_day")
+    private LocalDate day;
+
+    private long started;
+
+    private long checkedOut;
+
+    private long abandoned;
+
+    /**
+     * Checkouts of carts whose first item was seen, i.e. those counted in checkoutMillis.
+     */
+    private long timedCheckouts;
+
+    /**
+     * Sum of the time from first item to checkout over the timed checkouts of the day.
+     */
+    private long checkoutMillis;
+
+    public CartActivity(LocalDate day) {
+        this.day = day;
+    }
+}
@@ -0,0 +1,50 @@
+package beverage_store.model;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * A cart line that checkout revalidation had to change because the catalog moved on since it was added.
+ * Serializable because the changes travel to the cart page as a flash attribute in the session.
+ *
+ * @param oldPrice    unit price the line had
+ * @param newPrice    current unit price
+ * @param oldQuantity quantity the line had
+ * @param newQuantity quantity left in the cart, 0 if the line was removed
+ */
+public record CartChange(long beverageId, String name, Kind kind,
+                         Money oldPrice, Money newPrice, int oldQuantity, int newQuantity) implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public enum Kind {
+        /**
+         * The price changed; the line now has the current price.
+         */
+        REPRICED,
+        /**
+         * Less is in stock than the line held; the quantity was lowered or the line removed.
+         */
+        REDUCED,
+        /**
+         * The beverage is no longer in the catalog.
+         */
+        REMOVED
+    }
+
+    /**
+     * Message for the cart page.
+     */
+    public String describe() {
+        String label = name == null ? "An item" : name;
+        return switch (kind) {
+            case REPRICED -> label + ": the price changed from " + oldPrice.toBigDecimal() + " to "
+                    + newPrice.toBigDecimal() + " €";
+            case REDUCED -> newQuantity == 0
+                    ? label + " is out of stock and was removed"
+                    : label + ": only " + newQuantity + " left in stock, the quantity was lowered from " + oldQuantity;
+            case REMOVED -> label + " is no longer available and was removed";
+        };
+    }
+}
@@ -0,0 +1,13 @@
+package beverage_store.model;
+
+/**
+ * One line of a shopping cart without its beverage.
+ *
+ * @param unitPrice price snapshot taken when the beverage was added
+ */
+public record CartLine(long beverageId, int quantity, Money unitPrice) {
+
+    public Money total() {
+        return unitPrice.times(quantity);
+    }
+}
@@ -0,0 +1,28 @@
+package beverage_store.model;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * One line of the cart update form. Unlike {@link OrderItemDTO} the quantity may be 0, which removes the line.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CartLineDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @NotNull(message = "beverageId is required")
+    @Min(value = 1, message = "beverageId must be at least 1")
+    private Long beverageId;
+
+    @NotNull(message = "Quantity is required")
+    @Min(value = 0, message = "Quantity can not be negative")
+    private Integer quantity;
+}
@@ -0,0 +1,25 @@
+package beverage_store.model;
+
+import java.util.List;
+
+/**
+ * Cart statistics over a range of days.
+ *
+ * @param started               carts that got their first item
+ * @param checkedOut            carts that were checked out
+ * @param abandoned             carts left with items in them
+ * @param averageCheckoutMillis average time from first item to checkout
+ * @param mostRemoved           beverages most often taken out of carts again, most first
+ * @param droppedEvents         events dropped since startup because the event buffer was full
+ */
+public record CartStats(long started, long checkedOut, long abandoned, long averageCheckoutMillis,
+                        List<BeverageRemovals> mostRemoved, long droppedEvents) {
+
+    /**
+     * Share of the finished carts (checked out or abandoned) that were abandoned.
+     */
+    public double abandonmentRate() {
+        long finished = checkedOut + abandoned;
+        return finished == 0 ? 0.0 : (double) abandoned / finished;
+    }
+}
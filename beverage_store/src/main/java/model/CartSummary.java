@@ -0,0 +1,24 @@
+package beverage_store.model;
+
+import java.math.BigDecimal;
+
+/**
+ * JSON answer of the cart API: the cart totals plus the line that was just changed, so a page can update
+ * its counters without reloading.
+ *
+ * @param line the changed line; null for the whole cart or when the line was removed
+ */
+public record CartSummary(int lineCount, long itemCount, BigDecimal total, Line line) {
+
+    /**
+     * @param unitPrice price snapshot taken when the beverage was added
+     */
+    public record Line(long beverageId, int quantity, BigDecimal unitPrice, BigDecimal total) {
+    }
+
+    public static CartSummary of(CartTotals totals, CartLine line) {
+        return new CartSummary(totals.lineCount(), totals.itemCount(), totals.total().toBigDecimal(),
+                line == null ? null : new Line(line.beverageId(), line.quantity(),
+                        line.unitPrice().toBigDecimal(), line.total().toBigDecimal()));
+    }
+}
@@ -0,0 +1,17 @@
+package beverage_store.model;
+
+/**
+ * Running totals of a shopping cart, maintained as lines change.
+ *
+ * @param total     sum of all line prices
+ * @param itemCount sum of all quantities
+ * @param lineCount distinct beverages
+ */
+public record CartTotals(Money total, long itemCount, int lineCount) {
+
+    public static final CartTotals EMPTY = new CartTotals(Money.ZERO, 0, 0);
+
+    public boolean isEmpty() {
+        return lineCount == 0;
+    }
+}
@@ -0,0 +1,30 @@
+package beverage_store.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The whole cart form of reviewCart.html, bound from lines[i].beverageId / lines[i].quantity.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CartUpdateDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final int MAX_LINES = 200;
+
+    @Valid
+    @NotEmpty(message = "No cart lines")
+    @Size(max = MAX_LINES, message = "Too many cart lines")
+    private List<CartLineDTO> lines = new ArrayList<>();
+}
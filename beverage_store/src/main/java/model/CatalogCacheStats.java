@@ -0,0 +1,19 @@
+package beverage_store.model;
+
+/**
+ * Point-in-time counters of the in-process catalog cache.
+ *
+ * @param hits          lookups answered from memory
+ * @param misses        lookups that went to the database
+ * @param evictions     entries dropped because the cache was full
+ * @param invalidations entries dropped by catalog writes
+ * @param size          beverages currently cached by id
+ * @param version       current catalog version, bumped on every write
+ */
+public record CatalogCacheStats(long hits, long misses, long evictions, long invalidations, int size, long version) {
+
+    public double hitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,42 @@
+package beverage_store.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position in the catalog: the sort key of the last (or first) row of a page.
+ * Encoded as an opaque, URL-safe token so clients can't depend on its layout.
+ *
+ * @param name beverage name, only set when the catalog is sorted by name
+ * @param id   beverage id, always set (tie-breaker for equal names)
+ */
+public record CatalogCursor(String name, long id) {
+
+    private static final char SEPARATOR = '\u001f';
+
+    public String encode() {
+        String raw = name == null ? Long.toString(id) : name + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}.
+     *
+     * @return the cursor, or null when the token is blank or malformed
+     */
+    public static CatalogCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf(SEPARATOR);
+            if (sep < 0) {
+                return new CatalogCursor(null, Long.parseLong(raw));
+            }
+            return new CatalogCursor(raw.substring(0, sep), Long.parseLong(raw.substring(sep + 1)));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package beverage_store.model;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Read-only catalog row with just the columns the listing renders.
+ * Loaded with a constructor expression, so no entity is managed or dirty-checked for it.
+ *
+ * @param type "bottle" or "crate", see {@link Facet#typeOf(Beverage)}
+ */
+public record CatalogEntry(Long id, String name, String pic, BigDecimal price, int inStock, String type) {
+
+    public static CatalogEntry of(Beverage beverage) {
+        return new CatalogEntry(beverage.getId(), beverage.getName(), beverage.getPic(), beverage.getPrice(),
+                beverage.getInStock(), Facet.typeOf(beverage));
+    }
+
+    public static List<CatalogEntry> of(List<? extends Beverage> beverages) {
+        return beverages.stream().map(CatalogEntry::of).toList();
+    }
+}
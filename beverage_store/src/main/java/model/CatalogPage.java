@@ -0,0 +1,36 @@
+package beverage_store.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One keyset page of the catalog.
+ * Cursors are null when there is no page in that direction.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CatalogPage {
+
+    private List<CatalogEntry> beverages = Collections.emptyList();
+
+    private CatalogSort sort = CatalogSort.ID;
+
+    private int pageSize;
+
+    private String nextCursor;
+
+    private String previousCursor;
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    public boolean hasPrevious() {
+        return previousCursor != null;
+    }
+}
@@ -0,0 +1,16 @@
+package beverage_store.model;
+
+import java.util.List;
+
+/**
+ * Immutable view of the whole catalog as of a given cache version.
+ *
+ * @param version   cache version the snapshot was loaded under
+ * @param beverages all beverages ordered by id
+ */
+public record CatalogSnapshot(long version, List<Beverage> beverages) {
+
+    public CatalogSnapshot {
+        beverages = List.copyOf(beverages);
+    }
+}
@@ -0,0 +1,23 @@
+package beverage_store.model;
+
+/**
+ * Supported orderings of the catalog. Each one is backed by a keyset query in BeverageRepository.
+ */
+public enum CatalogSort {
+    ID,
+    NAME;
+
+    /**
+     * Lenient parse of a request parameter; unknown values fall back to {@link #ID}.
+     */
+    public static CatalogSort fromParam(String value) {
+        if (value != null && value.equalsIgnoreCase("name")) {
+            return NAME;
+        }
+        return ID;
+    }
+
+    public String toParam() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,12 @@
+package beverage_store.model;
+
+/**
+ * What checkout needs to know about the ordering user, read with one query instead of loading the user with
+ * addresses and order history.
+ *
+ * @param username   the user's id
+ * @param email      address the order confirmation goes to
+ * @param postalCode postal code of a delivery address (the lowest if there are several), or null
+ */
+public record CheckoutCustomer(String username, String email, String postalCode) {
+}
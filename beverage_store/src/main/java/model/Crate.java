@@ -24,11 +24,11 @@ public class Crate extends Beverage {
 
     @NotNull(message = "The number of bottles is required")
     @Min(value = 1, message = "The number of bottles must be at least 1")
-    @Column(name = "no_of_bottles", nullable = false)
+    @Column(name = "no_of_bottles")
     private Integer noOfBottles;
 
-    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @ManyToOne(fetch = FetchType.LAZY)
     @NotNull(message = "Bottle is required")
-    @JoinColumn(name = "bottle_id", nullable = false)
+    @JoinColumn(name = "bottle_id")
     private Bottle bottle;
 }
\ No newline at end of file
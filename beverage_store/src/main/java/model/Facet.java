@@ -0,0 +1,98 @@
+package beverage_store.model;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+/**
+ * Catalog facets customers can filter on. Each beverage has exactly one value per facet;
+ * crates take bottle-related values (alcohol, volume, supplier) from their bottle.
+ */
+public enum Facet {
+    TYPE("type", "Type"),
+    ALCOHOLIC("alcoholic", "Alcoholic"),
+    VOLUME("volume", "Volume"),
+    ALCOHOL_CONTENT("abv", "Alcohol content"),
+    PRICE("price", "Price"),
+    SUPPLIER("supplier", "Supplier");
+
+    private final String param;
+    private final String title;
+
+    Facet(String param, String title) {
+        this.param = param;
+        this.title = title;
+    }
+
+    /**
+     * Name of the request parameter carrying the selected values.
+     */
+    public String getParam() {
+        return param;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public static Facet fromParam(String param) {
+        for (Facet facet : values()) {
+            if (facet.param.equals(param)) {
+                return facet;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Human readable label for one of this facet's values.
+     */
+    public String label(String value) {
+        return switch (this) {
+            case TYPE, ALCOHOLIC -> value.substring(0, 1).toUpperCase(Locale.ROOT) + value.substring(1);
+            case VOLUME -> value + " l";
+            case ALCOHOL_CONTENT -> value.endsWith("+") ? value + " %" : value.replace("-", " - ") + " %";
+            case PRICE -> value.endsWith("+") ? value + " €" : value.replace("-", " - ") + " €";
+            case SUPPLIER -> value;
+        };
+    }
+
+    /*
+     * Value derivation, shared by the facet index and anything that needs to classify a beverage.
+     */
+
+    public static String typeOf(Beverage beverage) {
+        return beverage instanceof Crate ? "crate" : "bottle";
+    }
+
+    public static String alcoholBandOf(Double volumePercent) {
+        double abv = volumePercent == null ? 0.0 : volumePercent;
+        if (abv < 0.5) {
+            return "0-0.5";
+        }
+        if (abv < 5.0) {
+            return "0.5-5";
+        }
+        if (abv < 10.0) {
+            return "5-10";
+        }
+        return "10+";
+    }
+
+    public static String priceBandOf(BigDecimal price) {
+        double euros = price == null ? 0.0 : price.doubleValue();
+        if (euros < 1.0) {
+            return "0-1";
+        }
+        if (euros < 5.0) {
+            return "1-5";
+        }
+        if (euros < 20.0) {
+            return "5-20";
+        }
+        return "20+";
+    }
+
+    public static String volumeOf(Double volume) {
+        return volume == null ? null : BigDecimal.valueOf(volume).stripTrailingZeros().toPlainString();
+    }
+}
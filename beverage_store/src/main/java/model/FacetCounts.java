@@ -0,0 +1,21 @@
+package beverage_store.model;
+
+import java.util.Map;
+
+/**
+ * Number of beverages per facet value under the current filter.
+ * The count of a value ignores the selection of its own facet, so sibling values stay selectable.
+ *
+ * @param counts  facet -> (value -> count), values in display order
+ * @param matches number of beverages matching the whole filter
+ */
+public record FacetCounts(Map<Facet, Map<String, Integer>> counts, int matches) {
+
+    public FacetCounts {
+        counts = Map.copyOf(counts);
+    }
+
+    public Map<String, Integer> of(Facet facet) {
+        return counts.getOrDefault(facet, Map.of());
+    }
+}
@@ -0,0 +1,89 @@
+package beverage_store.model;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeSet;
+
+/**
+ * Selected facet values. Values of one facet are OR-ed, different facets are AND-ed.
+ */
+public final class FacetFilter {
+
+    private static final FacetFilter NONE = new FacetFilter(new EnumMap<>(Facet.class));
+
+    private final Map<Facet, Set<String>> selected;
+
+    private FacetFilter(EnumMap<Facet, Set<String>> selected) {
+        this.selected = Collections.unmodifiableMap(selected);
+    }
+
+    public static FacetFilter none() {
+        return NONE;
+    }
+
+    /**
+     * Build a filter from request parameters; unknown parameters and blank values are ignored.
+     */
+    public static FacetFilter fromParams(Map<String, List<String>> params) {
+        if (params == null || params.isEmpty()) {
+            return NONE;
+        }
+        EnumMap<Facet, Set<String>> selected = new EnumMap<>(Facet.class);
+        params.forEach((name, values) -> {
+            Facet facet = Facet.fromParam(name);
+            if (facet == null || values == null) {
+                return;
+            }
+            Set<String> cleaned = new TreeSet<>();
+            for (String value : values) {
+                if (value != null && !value.isBlank()) {
+                    cleaned.add(value.trim());
+                }
+            }
+            if (!cleaned.isEmpty()) {
+                selected.put(facet, Collections.unmodifiableSet(cleaned));
+            }
+        });
+        return selected.isEmpty() ? NONE : new FacetFilter(selected);
+    }
+
+    public boolean isEmpty() {
+        return selected.isEmpty();
+    }
+
+    public Map<Facet, Set<String>> getSelected() {
+        return selected;
+    }
+
+    public boolean isSelected(Facet facet, String value) {
+        return selected.getOrDefault(facet, Set.of()).contains(value);
+    }
+
+    /**
+     * Stable textual form, suitable as part of a cache key.
+     */
+    public String toKey() {
+        StringJoiner key = new StringJoiner(";");
+        selected.forEach((facet, values) -> key.add(facet.getParam() + "=" + String.join(",", values)));
+        return key.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof FacetFilter other && selected.equals(other.selected));
+    }
+
+    @Override
+    public int hashCode() {
+        return selected.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "FacetFilter{" + toKey() + "}";
+    }
+}
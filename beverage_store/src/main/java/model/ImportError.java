@@ -0,0 +1,9 @@
+package beverage_store.model;
+
+/**
+ * A rejected import row.
+ *
+ * @param row 1-based position of the row in the file, not counting the CSV header
+ */
+public record ImportError(long row, String message) {
+}
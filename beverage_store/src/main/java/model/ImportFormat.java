@@ -0,0 +1,18 @@
+package beverage_store.model;
+
+import java.util.Locale;
+
+/**
+ * File formats accepted by the bulk catalog import.
+ */
+public enum ImportFormat {
+    CSV,
+    JSON;
+
+    /**
+     * Pick the format from a file name; anything but *.json is read as CSV.
+     */
+    public static ImportFormat fromFilename(String filename) {
+        return filename != null && filename.toLowerCase(Locale.ROOT).endsWith(".json") ? JSON : CSV;
+    }
+}
@@ -0,0 +1,49 @@
+package beverage_store.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk catalog import.
+ */
+@Data
+@NoArgsConstructor
+public class ImportReport {
+
+    /**
+     * Only the first rejected rows are listed; {@link #rejected} counts all of them.
+     */
+    public static final int MAX_LISTED_ERRORS = 100;
+
+    private ImportFormat format;
+
+    private long rowsRead;
+
+    private long bottlesInserted;
+
+    private long cratesInserted;
+
+    private long rejected;
+
+    private long durationMillis;
+
+    private List<ImportError> errors = new ArrayList<>();
+
+    public void reject(long row, String message) {
+        rejected++;
+        if (errors.size() < MAX_LISTED_ERRORS) {
+            errors.add(new ImportError(row, message));
+        }
+    }
+
+    public long getInserted() {
+        return bottlesInserted + cratesInserted;
+    }
+
+    public double getRowsPerSecond() {
+        return durationMillis <= 0 ? rowsRead : rowsRead * 1000.0 / durationMillis;
+    }
+}
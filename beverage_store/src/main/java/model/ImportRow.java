@@ -0,0 +1,29 @@
+package beverage_store.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.math.BigDecimal;
+
+/**
+ * One line of a catalog import file (CSV header names or JSON field names).
+ * A crate names its bottle by {@code bottle} (bottle name, from the file or the catalog) or {@code bottleId}.
+ *
+ * @param type "bottle" or "crate"
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ImportRow(String type,
+                        String name,
+                        BigDecimal price,
+                        String pic,
+                        Integer inStock,
+                        Double volume,
+                        Double volumePercent,
+                        String supplier,
+                        Integer noOfBottles,
+                        String bottle,
+                        Long bottleId) {
+
+    public boolean isCrate() {
+        return "crate".equalsIgnoreCase(type == null ? null : type.trim());
+    }
+}
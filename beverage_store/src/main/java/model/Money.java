@@ -0,0 +1,60 @@
+package beverage_store.model;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Exact euro amount in whole cents. Arithmetic throws on overflow instead of wrapping.
+ */
+public record Money(long cents) implements Comparable<Money>, Serializable {
+
+    public static final Money ZERO = new Money(0);
+
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    /**
+     * Round a decimal price half-up to cents; null is zero.
+     */
+    public static Money of(BigDecimal amount) {
+        if (amount == null) {
+            return ZERO;
+        }
+        return ofCents(amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact());
+    }
+
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    public Money times(int quantity) {
+        return ofCents(Math.multiplyExact(cents, quantity));
+    }
+
+    public boolean isZero() {
+        return cents == 0;
+    }
+
+    /**
+     * The amount with scale 2, e.g. 30.26.
+     */
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
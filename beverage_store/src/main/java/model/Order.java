@@ -37,6 +37,13 @@ public class Order {
     @ManyToOne(fetch = FetchType.LAZY)
     private User customer;
 
+    /**
+     * Key of the checkout form the order was placed from; a second submit of the same form finds this order
+     * instead of placing another one.
+     */
+    @Column(length = 64, unique = true)
+    private String idempotencyKey;
+
     /**
      * Mapped by the 'order' field on OrderItem. Cascade all so items persist/merge/remove with the order.
      * Initialized to avoid null checks and to satisfy @Size validation.
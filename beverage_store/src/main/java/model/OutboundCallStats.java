@@ -0,0 +1,20 @@
+package beverage_store.model;
+
+/**
+ * Counters of the outbound HTTP client since startup.
+ *
+ * @param breakerState    CLOSED, OPEN or HALF_OPEN
+ * @param breakerOpenings how often the circuit breaker opened
+ * @param inFlight        calls currently running
+ * @param maxConcurrent   bulkhead size
+ * @param calls           calls made
+ * @param failures        calls that failed with an I/O error, a timeout or a 5xx answer
+ * @param rejectedFull    calls rejected because the bulkhead was full
+ * @param rejectedOpen    calls rejected because the breaker was open
+ * @param averageMillis   average duration of the calls made
+ * @param maxMillis       longest call
+ */
+public record OutboundCallStats(String breakerState, long breakerOpenings, int inFlight, int maxConcurrent,
+                                long calls, long failures, long rejectedFull, long rejectedOpen,
+                                long averageMillis, long maxMillis) {
+}
@@ -0,0 +1,72 @@
+package beverage_store.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A call to an external service that is still to be made, written in the same transaction as the change that
+ * caused it (e.g. the order confirmation PDF of a new order). Delivered messages are deleted; messages that
+ * failed too often stay as DEAD for inspection.
+ */
+@Entity
+@Table(name = "outbox", indexes = @Index(name = "outbox_due", columnList = "status, nextAttemptAt"))
+@Data
+@NoArgsConstructor
+public class OutboxMessage {
+
+    public enum Status {
+        PENDING,
+        DEAD
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+
+    /**
+     * Guards claiming: two dispatchers can't both take a message.
+     */
+    @Version
+    private long version;
+
+    @Column(nullable = false, length = 64)
+    private String topic;
+
+    @Column(nullable = false, length = 1048576)
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status = Status.PENDING;
+
+    private int attempts;
+
+    private Instant createdAt;
+
+    /**
+     * When the message is due; set ahead while a dispatcher holds it, and by the backoff after a failure.
+     */
+    private Instant nextAttemptAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    public OutboxMessage(String topic, String payload, Instant now) {
+        this.topic = topic;
+        this.payload = payload;
+        this.createdAt = now;
+        this.nextAttemptAt = now;
+    }
+}
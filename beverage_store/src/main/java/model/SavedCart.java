@@ -0,0 +1,31 @@
+package beverage_store.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Shopping cart of a signed-in user, kept across sessions. One row per user; the lines are stored in the
+ * binary form of {@link beverage_store.cart.CompactCart#toBytes()}.
+ */
+@Entity
+@Table(name = "cart")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SavedCart {
+
+    @Id
+    private String username;
+
+    @Column(nullable = false, length = 65536)
+    private byte[] lines;
+
+    private Instant updatedAt;
+}
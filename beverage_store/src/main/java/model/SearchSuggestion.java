@@ -0,0 +1,7 @@
+package beverage_store.model;
+
+/**
+ * Autocomplete entry returned as JSON by /beverages/autocomplete.
+ */
+public record SearchSuggestion(Long id, String name) {
+}
@@ -0,0 +1,18 @@
+package beverage_store.outbound;
+
+import org.springframework.web.client.RestClientException;
+
+import java.io.Serial;
+
+/**
+ * An outbound call was rejected without being made: the circuit breaker is open or the bulkhead is full.
+ */
+public class CallNotPermittedException extends RestClientException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public CallNotPermittedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,129 @@
+package beverage_store.outbound;
+
+import java.time.Clock;
+
+/**
+ * Count-based circuit breaker. While CLOSED the outcomes of the last windowSize calls are kept; once at least
+ * minimumCalls are in the window and the failure rate reaches the threshold, the breaker OPENs and rejects
+ * calls. After openMillis it goes HALF_OPEN and lets probeCalls calls through: if they all succeed it closes
+ * with an empty window, the first failing probe opens it again.
+ * <p>
+ * Methods are synchronized and only update counters, no calls are made while holding the lock.
+ */
+public final class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final Clock clock;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openMillis;
+    private final int probeCalls;
+
+    private final boolean[] window;
+    private int windowNext;
+    private int windowCalls;
+    private int windowFailures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int probesStarted;
+    private int probesSucceeded;
+    private long timesOpened;
+
+    public CircuitBreaker(Clock clock, int windowSize, int minimumCalls, double failureRateThreshold,
+                          long openMillis, int probeCalls) {
+        this.clock = clock;
+        this.window = new boolean[Math.max(1, windowSize)];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, window.length));
+        this.failureRateThreshold = failureRateThreshold;
+        this.openMillis = openMillis;
+        this.probeCalls = Math.max(1, probeCalls);
+    }
+
+    /**
+     * @return true if a call may be made now; every permitted call must be followed by
+     * {@link #onSuccess()} or {@link #onFailure()}
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.millis() - openedAt < openMillis) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probesStarted = 0;
+            probesSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesStarted >= probeCalls) {
+                return false;
+            }
+            probesStarted++;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++probesSucceeded >= probeCalls) {
+                close();
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (windowCalls >= minimumCalls && (double) windowFailures / windowCalls >= failureRateThreshold) {
+                open();
+            }
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * How often the breaker opened since startup.
+     */
+    public synchronized long getTimesOpened() {
+        return timesOpened;
+    }
+
+    private void record(boolean failed) {
+        if (windowCalls == window.length) {
+            if (window[windowNext]) {
+                windowFailures--;
+            }
+        } else {
+            windowCalls++;
+        }
+        window[windowNext] = failed;
+        if (failed) {
+            windowFailures++;
+        }
+        windowNext = (windowNext + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = clock.millis();
+        timesOpened++;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        windowNext = 0;
+        windowCalls = 0;
+        windowFailures = 0;
+    }
+}
@@ -0,0 +1,51 @@
+package beverage_store.outbound;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+/**
+ * RestTemplate for calls to the cloud functions. One shared JDK HttpClient keeps connections alive and reuses
+ * them; connect and read timeouts bound every call, and an {@link OutboundGuard} limits concurrent calls and
+ * stops calling a downstream that keeps failing. In virtual-thread mode the client's own tasks run on
+ * virtual threads as well.
+ */
+@Configuration
+public class OutboundConfig {
+
+    @Bean
+    public OutboundGuard outboundGuard(@Value("${outbound.max-concurrent-calls:8}") int maxConcurrent,
+                                       @Value("${outbound.breaker.window-size:20}") int windowSize,
+                                       @Value("${outbound.breaker.minimum-calls:5}") int minimumCalls,
+                                       @Value("${outbound.breaker.failure-rate:0.5}") double failureRate,
+                                       @Value("${outbound.breaker.open-ms:30000}") long openMillis,
+                                       @Value("${outbound.breaker.probe-calls:1}") int probeCalls) {
+        return new OutboundGuard(maxConcurrent,
+                new CircuitBreaker(Clock.systemUTC(), windowSize, minimumCalls, failureRate, openMillis, probeCalls));
+    }
+
+    @Bean
+    public RestTemplate restTemplate(OutboundGuard outboundGuard,
+                                     @Value("${outbound.connect-timeout-ms:2000}") long connectTimeoutMs,
+                                     @Value("${outbound.read-timeout-ms:10000}") long readTimeoutMs,
+                                     @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NEVER);
+        if (virtualThreads) {
+            builder.executor(Executors.newVirtualThreadPerTaskExecutor());
+        }
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(builder.build());
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        restTemplate.getInterceptors().add(outboundGuard);
+        return restTemplate;
+    }
+}
@@ -0,0 +1,143 @@
+package beverage_store.outbound;
+
+import beverage_store.model.OutboundCallStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bulkhead and circuit breaker around every call of a RestTemplate. A call needs one of maxConcurrent permits,
+ * held until its response is closed, and the breaker's permission; without either it fails at once with
+ * {@link CallNotPermittedException} instead of queueing behind a slow downstream. I/O errors (timeouts
+ * included) and 5xx answers count as failures for the breaker, 4xx answers don't.
+ */
+@Slf4j
+public class OutboundGuard implements ClientHttpRequestInterceptor {
+
+    private final Semaphore bulkhead;
+    private final int maxConcurrent;
+    private final CircuitBreaker breaker;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder rejectedFull = new LongAdder();
+    private final LongAdder rejectedOpen = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    public OutboundGuard(int maxConcurrent, CircuitBreaker breaker) {
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.bulkhead = new Semaphore(this.maxConcurrent);
+        this.breaker = breaker;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (!bulkhead.tryAcquire()) {
+            rejectedFull.increment();
+            throw new CallNotPermittedException("Too many concurrent calls to " + request.getURI().getHost());
+        }
+        boolean released = false;
+        try {
+            if (!breaker.tryAcquire()) {
+                rejectedOpen.increment();
+                throw new CallNotPermittedException("Circuit open for " + request.getURI().getHost());
+            }
+            calls.increment();
+            long start = System.nanoTime();
+            ClientHttpResponse response;
+            try {
+                response = execution.execute(request, body);
+            } catch (IOException | RuntimeException e) {
+                failed(request, e.toString());
+                throw e;
+            } finally {
+                long nanos = System.nanoTime() - start;
+                totalNanos.add(nanos);
+                maxNanos.accumulate(nanos);
+            }
+            if (response.getStatusCode().is5xxServerError()) {
+                failed(request, response.getStatusCode().toString());
+            } else {
+                breaker.onSuccess();
+            }
+            released = true;
+            return new PermitReleasingResponse(response, bulkhead);
+        } finally {
+            if (!released) {
+                bulkhead.release();
+            }
+        }
+    }
+
+    public OutboundCallStats getStats() {
+        long made = calls.sum();
+        return new OutboundCallStats(breaker.getState().name(), breaker.getTimesOpened(),
+                maxConcurrent - bulkhead.availablePermits(), maxConcurrent, made, failures.sum(),
+                rejectedFull.sum(), rejectedOpen.sum(), made == 0 ? 0 : totalNanos.sum() / made / 1_000_000,
+                maxNanos.get() / 1_000_000);
+    }
+
+    private void failed(HttpRequest request, String reason) {
+        failures.increment();
+        breaker.onFailure();
+        log.debug("Outbound call {} {} failed: {}", request.getMethod(), request.getURI(), reason);
+    }
+
+    /**
+     * Gives the bulkhead permit back once the body has been read and the response closed.
+     */
+    private static final class PermitReleasingResponse implements ClientHttpResponse {
+        private final ClientHttpResponse delegate;
+        private final Semaphore bulkhead;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private PermitReleasingResponse(ClientHttpResponse delegate, Semaphore bulkhead) {
+            this.delegate = delegate;
+            this.bulkhead = bulkhead;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                if (closed.compareAndSet(false, true)) {
+                    bulkhead.release();
+                }
+            }
+        }
+    }
+}
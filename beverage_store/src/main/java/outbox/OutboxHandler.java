@@ -0,0 +1,17 @@
+package beverage_store.outbox;
+
+/**
+ * Delivers the outbox messages of one topic. Handlers are Spring beans; the dispatcher picks them by topic.
+ */
+public interface OutboxHandler {
+
+    String topic();
+
+    /**
+     * Make the call for one message. Delivery is at least once: a message may be delivered again if the
+     * dispatcher stops before recording the success.
+     *
+     * @throws Exception if the call failed; the message is retried later
+     */
+    void deliver(String payload) throws Exception;
+}
@@ -0,0 +1,50 @@
+package beverage_store.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Sends order confirmations ({@link beverage_store.model.OrderDTO} as JSON) to the PDF generator function.
+ * The RestTemplate is the guarded one from {@link beverage_store.outbound.OutboundConfig}: a timeout, a full
+ * bulkhead or an open circuit throws, and the outbox retries the message after its backoff.
+ */
+@Slf4j
+@Component
+public class PdfFunctionHandler implements OutboxHandler {
+
+    public static final String TOPIC = "order-pdf";
+
+    private final RestTemplate restTemplate;
+    private final String endpoint;
+
+    public PdfFunctionHandler(RestTemplate restTemplate,
+                              @Value("${pdf.function.url:http://localhost:8081/}") String endpoint) {
+        this.restTemplate = restTemplate;
+        this.endpoint = endpoint;
+    }
+
+    @Override
+    public String topic() {
+        return TOPIC;
+    }
+
+    @Override
+    public void deliver(String payload) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        // 4xx/5xx answers are thrown by the RestTemplate
+        ResponseEntity<String> response = restTemplate.exchange(endpoint, HttpMethod.POST,
+                new HttpEntity<>(payload, headers), String.class);
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            throw new IllegalStateException("pdf Function answered " + response.getStatusCode());
+        }
+        log.info("pdf Function invoked successfully");
+    }
+}
@@ -0,0 +1,13 @@
+package beverage_store.repository;
+
+import beverage_store.model.BeverageRemovals;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BeverageRemovalsRepository extends JpaRepository<BeverageRemovals, Long> {
+
+    List<BeverageRemovals> findTop10ByOrderByRemovalsDesc();
+}
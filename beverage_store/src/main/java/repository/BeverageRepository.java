@@ -1,11 +1,21 @@
 package beverage_store.repository;
 
 import beverage_store.model.Beverage;
+import beverage_store.model.CatalogEntry;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository for Beverage root entity.
@@ -21,11 +31,70 @@ public interface BeverageRepository extends JpaRepository<Beverage, Long> {
 
     /**
      * Return all beverages ordered by name (useful for UI lists).
+     * Result ids are kept in the "catalog-by-name" query cache; the rows themselves come from the entity cache.
      */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "catalog-by-name")
+    })
     List<Beverage> findAllByOrderByNameAsc();
 
     /**
      * Convenience existence check by name.
      */
     boolean existsByNameIgnoreCase(String name);
+
+    /**
+     * All beverages in id order as a lazily fetched stream for exports.
+     * Must be consumed inside a transaction and closed; rows are read-only, so nothing is dirty-checked.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select b from Beverage b order by b.id asc")
+    Stream<Beverage> streamAllByOrderByIdAsc();
+
+    /*
+     * Keyset (seek) pagination. Each query continues from the sort key of the last row
+     * the client has seen, so the database can walk the index instead of counting rows.
+     * "Before" queries return rows in reverse order; callers flip them for display.
+     * Rows are CatalogEntry projections, never managed entities.
+     */
+
+    String CATALOG_ENTRY = "select new beverage_store.model.CatalogEntry(b.id, b.name, b.pic, b.price, b.inStock, " +
+            "case when type(b) = Crate then 'crate' else 'bottle' end) from Beverage b ";
+
+    @Query(CATALOG_ENTRY + "where b.id > :afterId order by b.id asc")
+    List<CatalogEntry> findPageAfterId(@Param("afterId") long afterId, Limit limit);
+
+    @Query(CATALOG_ENTRY + "where b.id < :beforeId order by b.id desc")
+    List<CatalogEntry> findPageBeforeId(@Param("beforeId") long beforeId, Limit limit);
+
+    @Query(CATALOG_ENTRY + "order by b.name asc, b.id asc")
+    List<CatalogEntry> findFirstPageByName(Limit limit);
+
+    @Query(CATALOG_ENTRY + "where b.name > :name or (b.name = :name and b.id > :afterId) " +
+            "order by b.name asc, b.id asc")
+    List<CatalogEntry> findPageAfterName(@Param("name") String name, @Param("afterId") long afterId, Limit limit);
+
+    @Query(CATALOG_ENTRY + "where b.name < :name or (b.name = :name and b.id < :beforeId) " +
+            "order by b.name desc, b.id desc")
+    List<CatalogEntry> findPageBeforeName(@Param("name") String name, @Param("beforeId") long beforeId, Limit limit);
+
+    /**
+     * Catalog rows for the given ids, in no particular order.
+     */
+    @Query(CATALOG_ENTRY + "where b.id in :ids")
+    List<CatalogEntry> findEntriesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Take a quantity out of stock in one guarded statement; the row lock taken by the update makes
+     * concurrent decrements of the same beverage wait for each other instead of losing one.
+     *
+     * @return 1 if the stock was decreased, 0 if the beverage is unknown or has less than quantity in stock
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update Beverage b set b.inStock = b.inStock - :quantity where b.id = :id and b.inStock >= :quantity")
+    int decreaseStockIfAvailable(@Param("id") long id, @Param("quantity") int quantity);
 }
@@ -1,7 +1,12 @@
 package beverage_store.repository;
 
 import beverage_store.model.Bottle;
+import beverage_store.model.BottleRef;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -16,12 +21,22 @@ public interface BottleRepository extends JpaRepository<Bottle, Long> {
     Optional<Bottle> findByNameIgnoreCase(String name);
 
     /**
-     * Return all bottles ordered by name (useful for UI lists).
+     * Return all bottles ordered by name (useful for UI lists), from the "catalog-by-name" query cache.
      */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "catalog-by-name")
+    })
     List<Bottle> findAllByOrderByNameAsc();
 
     /**
      * Convenience existence check by name.
      */
     boolean existsByNameIgnoreCase(String name);
+
+    /**
+     * Ids and names of all bottles, without loading the entities.
+     */
+    @Query("select new beverage_store.model.BottleRef(b.id, b.name) from Bottle b")
+    List<BottleRef> findAllRefs();
 }
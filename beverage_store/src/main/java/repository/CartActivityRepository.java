@@ -0,0 +1,14 @@
+package beverage_store.repository;
+
+import beverage_store.model.CartActivity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface CartActivityRepository extends JpaRepository<CartActivity, LocalDate> {
+
+    List<CartActivity> findByDayBetween(LocalDate from, LocalDate to);
+}
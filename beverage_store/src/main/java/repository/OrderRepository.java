@@ -3,6 +3,8 @@ package beverage_store.repository;
 import beverage_store.model.Order;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -24,4 +26,10 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Override
     @EntityGraph(attributePaths = {"items", "items.beverage", "customer"})
     Optional<Order> findById(Long id);
+
+    /**
+     * Id of the order a user placed with a checkout key; one lookup on the key's unique index.
+     */
+    @Query("select o.id from Order o where o.idempotencyKey = :key and o.customer.username = :username")
+    Optional<Long> findIdByIdempotencyKey(@Param("key") String key, @Param("username") String username);
 }
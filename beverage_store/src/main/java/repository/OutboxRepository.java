@@ -0,0 +1,21 @@
+package beverage_store.repository;
+
+import beverage_store.model.OutboxMessage;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface OutboxRepository extends JpaRepository<OutboxMessage, Long> {
+
+    /**
+     * Messages due for delivery, oldest first.
+     */
+    List<OutboxMessage> findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(OutboxMessage.Status status,
+                                                                              Instant now, Limit limit);
+
+    long countByStatus(OutboxMessage.Status status);
+}
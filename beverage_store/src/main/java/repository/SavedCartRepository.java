@@ -0,0 +1,9 @@
+package beverage_store.repository;
+
+import beverage_store.model.SavedCart;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SavedCartRepository extends JpaRepository<SavedCart, String> {
+}
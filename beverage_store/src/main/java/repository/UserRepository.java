@@ -1,8 +1,11 @@
 package beverage_store.repository;
 
+import beverage_store.model.CheckoutCustomer;
 import beverage_store.model.User;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -28,4 +31,11 @@ public interface UserRepository extends JpaRepository<User, String> {
     Optional<User> getUserWithEntitiesByUsername(String username);
 
     boolean existsByUsername(String username);
+
+    /**
+     * One row with the user's email and a delivery postal code; addresses and orders aren't loaded.
+     */
+    @Query("select new beverage_store.model.CheckoutCustomer(u.username, u.email, min(a.postalCode)) " +
+            "from User u left join u.deliveryaddresses a where u.username = :username group by u.username, u.email")
+    Optional<CheckoutCustomer> findCheckoutCustomer(@Param("username") String username);
 }
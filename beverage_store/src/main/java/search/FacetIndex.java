@@ -0,0 +1,189 @@
+package beverage_store.search;
+
+import beverage_store.model.CatalogCursor;
+import beverage_store.model.CatalogSort;
+import beverage_store.model.Facet;
+import beverage_store.model.FacetCounts;
+import beverage_store.model.FacetFilter;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * One bitmap per facet value, indexed by beverage id, so a filter is an OR within a facet and an AND
+ * across facets. Unfiltered counts are maintained incrementally on every put/remove.
+ * A name-ordered set of ids allows keyset paging of filtered results by name. Not thread-safe.
+ */
+public class FacetIndex {
+
+    private record NameKey(String name, long id) {
+    }
+
+    private static final Comparator<NameKey> NAME_ORDER =
+            Comparator.comparing(NameKey::name, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+                    .thenComparingLong(NameKey::id);
+
+    private final BitSet all = new BitSet();
+    private final EnumMap<Facet, Map<String, BitSet>> bitmaps = new EnumMap<>(Facet.class);
+    private final EnumMap<Facet, Map<String, Integer>> counts = new EnumMap<>(Facet.class);
+    private final Map<Long, Map<Facet, String>> valuesById = new HashMap<>();
+    private final Map<Long, NameKey> nameKeys = new HashMap<>();
+    private final NavigableSet<NameKey> byName = new TreeSet<>(NAME_ORDER);
+
+    public FacetIndex() {
+        for (Facet facet : Facet.values()) {
+            bitmaps.put(facet, new HashMap<>());
+            counts.put(facet, new TreeMap<>());
+        }
+    }
+
+    /**
+     * Index a beverage, replacing its previous values.
+     *
+     * @param values one value per facet; null values leave the beverage out of that facet
+     */
+    public void put(long id, String name, Map<Facet, String> values) {
+        remove(id);
+        int bit = Math.toIntExact(id);
+        all.set(bit);
+        Map<Facet, String> stored = new EnumMap<>(Facet.class);
+        values.forEach((facet, value) -> {
+            if (value == null) {
+                return;
+            }
+            bitmaps.get(facet).computeIfAbsent(value, v -> new BitSet()).set(bit);
+            counts.get(facet).merge(value, 1, Integer::sum);
+            stored.put(facet, value);
+        });
+        valuesById.put(id, stored);
+        NameKey key = new NameKey(name, id);
+        nameKeys.put(id, key);
+        byName.add(key);
+    }
+
+    public void remove(long id) {
+        Map<Facet, String> stored = valuesById.remove(id);
+        if (stored == null) {
+            return;
+        }
+        int bit = Math.toIntExact(id);
+        all.clear(bit);
+        stored.forEach((facet, value) -> {
+            BitSet bits = bitmaps.get(facet).get(value);
+            bits.clear(bit);
+            if (bits.isEmpty()) {
+                bitmaps.get(facet).remove(value);
+            }
+            counts.get(facet).computeIfPresent(value, (v, c) -> c > 1 ? c - 1 : null);
+        });
+        byName.remove(nameKeys.remove(id));
+    }
+
+    public void clear() {
+        all.clear();
+        bitmaps.values().forEach(Map::clear);
+        counts.values().forEach(Map::clear);
+        valuesById.clear();
+        nameKeys.clear();
+        byName.clear();
+    }
+
+    public int size() {
+        return valuesById.size();
+    }
+
+    /**
+     * Ids matching the filter as a new bitmap the caller may modify.
+     */
+    public BitSet select(FacetFilter filter) {
+        return select(filter, null);
+    }
+
+    public FacetCounts counts(FacetFilter filter) {
+        Map<Facet, Map<String, Integer>> result = new EnumMap<>(Facet.class);
+        if (filter.isEmpty()) {
+            counts.forEach((facet, values) -> result.put(facet, new TreeMap<>(values)));
+            return new FacetCounts(result, all.cardinality());
+        }
+        for (Facet facet : Facet.values()) {
+            // disjunctive faceting: a facet's own selection doesn't restrict its counts
+            BitSet others = select(filter, facet);
+            Map<String, Integer> values = new TreeMap<>();
+            bitmaps.get(facet).forEach((value, bits) -> {
+                BitSet and = (BitSet) bits.clone();
+                and.and(others);
+                values.put(value, and.cardinality());
+            });
+            result.put(facet, values);
+        }
+        return new FacetCounts(result, select(filter).cardinality());
+    }
+
+    /**
+     * Keyset page over the matching ids.
+     *
+     * @param matches result of {@link #select(FacetFilter)}
+     * @param cursor  last seen row (forward) or first seen row (backward); null starts at the beginning
+     * @param forward direction of travel; backward results are returned in reverse order
+     */
+    public List<Long> seek(BitSet matches, CatalogSort sort, CatalogCursor cursor, boolean forward, int limit) {
+        List<Long> ids = new ArrayList<>(Math.min(limit, 64));
+        if (sort == CatalogSort.NAME) {
+            NavigableSet<NameKey> range = byName;
+            if (cursor != null) {
+                NameKey from = new NameKey(cursor.name(), cursor.id());
+                range = forward ? byName.tailSet(from, false) : byName.headSet(from, false);
+            }
+            Iterator<NameKey> it = forward ? range.iterator() : range.descendingIterator();
+            while (it.hasNext() && ids.size() < limit) {
+                long id = it.next().id();
+                if (matches.get(Math.toIntExact(id))) {
+                    ids.add(id);
+                }
+            }
+            return ids;
+        }
+        if (forward) {
+            int start = cursor == null ? 0 : Math.toIntExact(cursor.id()) + 1;
+            for (int i = matches.nextSetBit(start); i >= 0 && ids.size() < limit; i = matches.nextSetBit(i + 1)) {
+                ids.add((long) i);
+            }
+        } else {
+            int start = cursor == null ? matches.length() - 1 : Math.toIntExact(cursor.id()) - 1;
+            for (int i = start < 0 ? -1 : matches.previousSetBit(start); i >= 0 && ids.size() < limit;
+                 i = i == 0 ? -1 : matches.previousSetBit(i - 1)) {
+                ids.add((long) i);
+            }
+        }
+        return ids;
+    }
+
+    private BitSet select(FacetFilter filter, Facet skip) {
+        BitSet result = (BitSet) all.clone();
+        for (Map.Entry<Facet, Set<String>> entry : filter.getSelected().entrySet()) {
+            if (entry.getKey() == skip) {
+                continue;
+            }
+            BitSet union = new BitSet();
+            Map<String, BitSet> values = bitmaps.get(entry.getKey());
+            for (String value : entry.getValue()) {
+                BitSet bits = values.get(value);
+                if (bits != null) {
+                    union.or(bits);
+                }
+            }
+            result.and(union);
+        }
+        return result;
+    }
+}
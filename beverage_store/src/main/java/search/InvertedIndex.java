@@ -0,0 +1,122 @@
+package beverage_store.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Term -> document id postings with a prefix trie over the terms.
+ * A query matches documents containing every query term; the last term is treated as a prefix
+ * so results narrow down while the user is typing. Not thread-safe.
+ */
+public class InvertedIndex {
+
+    /**
+     * Upper bound on the number of terms a trailing prefix expands to, keeps one-letter queries cheap.
+     */
+    static final int MAX_PREFIX_EXPANSION = 256;
+
+    private final Map<String, TreeSet<Long>> postings = new HashMap<>();
+    private final Map<Long, Set<String>> termsByDocument = new HashMap<>();
+    private PrefixTrie trie = new PrefixTrie();
+
+    /**
+     * Index a document, replacing whatever was indexed under the same id before.
+     */
+    public void put(long id, Collection<String> terms) {
+        remove(id);
+        Set<String> distinct = Set.copyOf(terms);
+        for (String term : distinct) {
+            postings.computeIfAbsent(term, t -> {
+                trie.add(t);
+                return new TreeSet<>();
+            }).add(id);
+        }
+        termsByDocument.put(id, distinct);
+    }
+
+    public void remove(long id) {
+        Set<String> terms = termsByDocument.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            TreeSet<Long> ids = postings.get(term);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                postings.remove(term);
+                trie.remove(term);
+            }
+        }
+    }
+
+    public void clear() {
+        postings.clear();
+        termsByDocument.clear();
+        trie = new PrefixTrie();
+    }
+
+    /**
+     * Ids of documents matching all query terms, ascending.
+     */
+    public List<Long> match(List<String> queryTerms, int limit) {
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        List<Set<Long>> sets = new ArrayList<>(queryTerms.size());
+        for (int i = 0; i < queryTerms.size() - 1; i++) {
+            TreeSet<Long> exact = postings.get(queryTerms.get(i));
+            if (exact == null) {
+                return List.of();
+            }
+            sets.add(exact);
+        }
+        Set<Long> prefixMatches = expand(queryTerms.get(queryTerms.size() - 1));
+        if (prefixMatches.isEmpty()) {
+            return List.of();
+        }
+        sets.add(prefixMatches);
+
+        // intersect starting from the smallest set to keep the work proportional to the result
+        sets.sort(Comparator.comparingInt(Set::size));
+        List<Long> result = new ArrayList<>();
+        for (Long id : sets.get(0)) {
+            boolean inAll = true;
+            for (int i = 1; i < sets.size() && inAll; i++) {
+                inAll = sets.get(i).contains(id);
+            }
+            if (inAll) {
+                result.add(id);
+                if (result.size() >= limit) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    public int documentCount() {
+        return termsByDocument.size();
+    }
+
+    public int termCount() {
+        return trie.size();
+    }
+
+    private Set<Long> expand(String prefix) {
+        TreeSet<Long> exact = postings.get(prefix);
+        List<String> terms = trie.termsWithPrefix(prefix, MAX_PREFIX_EXPANSION);
+        if (terms.size() == 1 && exact != null) {
+            return exact;
+        }
+        TreeSet<Long> union = new TreeSet<>();
+        for (String term : terms) {
+            union.addAll(postings.get(term));
+        }
+        return union;
+    }
+}
@@ -0,0 +1,101 @@
+package beverage_store.search;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Character trie over the distinct terms of the index, used to expand a prefix into full terms.
+ * Not thread-safe; callers guard it together with the index.
+ */
+public class PrefixTrie {
+
+    private static final class Node {
+        private final Map<Character, Node> children = new TreeMap<>();
+        private boolean terminal;
+    }
+
+    private final Node root = new Node();
+    private int size;
+
+    public void add(String term) {
+        Node node = root;
+        for (int i = 0; i < term.length(); i++) {
+            node = node.children.computeIfAbsent(term.charAt(i), c -> new Node());
+        }
+        if (!node.terminal) {
+            node.terminal = true;
+            size++;
+        }
+    }
+
+    public void remove(String term) {
+        if (remove(root, term, 0)) {
+            size--;
+        }
+    }
+
+    /**
+     * @return true if the term was present
+     */
+    private boolean remove(Node node, String term, int depth) {
+        if (depth == term.length()) {
+            boolean present = node.terminal;
+            node.terminal = false;
+            return present;
+        }
+        Node child = node.children.get(term.charAt(depth));
+        if (child == null) {
+            return false;
+        }
+        boolean removed = remove(child, term, depth + 1);
+        if (!child.terminal && child.children.isEmpty()) {
+            node.children.remove(term.charAt(depth));
+        }
+        return removed;
+    }
+
+    public boolean contains(String term) {
+        Node node = find(term);
+        return node != null && node.terminal;
+    }
+
+    /**
+     * Terms starting with the prefix, in lexicographic order.
+     */
+    public List<String> termsWithPrefix(String prefix, int limit) {
+        List<String> result = new ArrayList<>();
+        Node node = find(prefix);
+        if (node != null && limit > 0) {
+            collect(node, new StringBuilder(prefix), result, limit);
+        }
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private Node find(String prefix) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.children.get(prefix.charAt(i));
+        }
+        return node;
+    }
+
+    private static void collect(Node node, StringBuilder path, List<String> out, int limit) {
+        if (node.terminal) {
+            out.add(path.toString());
+        }
+        for (Map.Entry<Character, Node> child : node.children.entrySet()) {
+            if (out.size() >= limit) {
+                return;
+            }
+            path.append(child.getKey());
+            collect(child.getValue(), path, out, limit);
+            path.setLength(path.length() - 1);
+        }
+    }
+}
@@ -29,7 +29,8 @@ public class SecurityConfig {
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
             .authorizeHttpRequests(auth -> auth
-                .requestMatchers("/", "/beverages", "/css/**", "/register").permitAll()
+                .requestMatchers("/", "/beverages", "/beverages/search", "/beverages/autocomplete",
+                        "/api/beverages", "/images/**", "/css/**", "/register").permitAll()
                 .anyRequest().authenticated()
             )
             .formLogin(form -> form.permitAll())
@@ -49,6 +50,8 @@ public class SecurityConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        // keep only the username in the session instead of the User entity, see the shared-session profile
+        authProvider.setForcePrincipalAsString(true);
         return authProvider;
     }
 
@@ -0,0 +1,31 @@
+package beverage_store.service;
+
+import beverage_store.model.Beverage;
+import beverage_store.model.SearchSuggestion;
+
+import java.util.List;
+
+/**
+ * Full-text search over beverage names and bottle suppliers, answered from memory.
+ * The index is built at startup and kept up to date from CatalogChangedEvent.
+ */
+public interface BeverageSearchService {
+
+    /**
+     * Beverages matching every word of the query (the last word may be incomplete), ordered by name.
+     *
+     * @param query free text
+     * @param limit maximum number of results
+     */
+    List<Beverage> search(String query, int limit);
+
+    /**
+     * Lightweight suggestions for a search box.
+     */
+    List<SearchSuggestion> autocomplete(String query, int limit);
+
+    /**
+     * Rebuild the whole index from the database.
+     */
+    void rebuild();
+}
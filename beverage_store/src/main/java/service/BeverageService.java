@@ -1,5 +1,7 @@
 package beverage_store.service;
 
+import java.util.Map;
+
 /**
  * Service API for beverage related operations.
  */
@@ -12,4 +14,14 @@ public interface BeverageService {
      * @param newQuantity the new in-stock quantity (must be >= 0)
      */
     void updateBeverageQuantity(Long beverageId, int newQuantity);
+
+    /**
+     * Take ordered quantities out of stock, all or none. Each line is one conditional update on the stored
+     * quantity, so concurrent orders can't sell the same bottles twice.
+     *
+     * @param quantities beverage id to ordered quantity (each >= 1)
+     * @throws beverage_store.stock.InsufficientStockException listing the beverages that are short; the
+     *                                                         transaction is rolled back then
+     */
+    void decreaseStock(Map<Long, Integer> quantities);
 }
@@ -0,0 +1,30 @@
+package beverage_store.service;
+
+import beverage_store.analytics.CartEvent;
+import beverage_store.model.CartStats;
+
+import java.time.LocalDate;
+
+/**
+ * Cart statistics: abandonment, time to checkout and the beverages most often taken out of carts again.
+ * Events are recorded on the request path without waiting for anything and aggregated in the background.
+ */
+public interface CartAnalyticsService {
+
+    /**
+     * Queue an event for aggregation. Never blocks; when the queue is full the event is dropped.
+     */
+    void record(CartEvent.Type type, String cartId, long beverageId, int quantity);
+
+    /**
+     * Aggregate the queued events and write the counters.
+     *
+     * @return number of events aggregated
+     */
+    int drain();
+
+    /**
+     * Statistics of the days from..to (inclusive) as written by the last drain.
+     */
+    CartStats getStats(LocalDate from, LocalDate to);
+}
@@ -0,0 +1,32 @@
+package beverage_store.service;
+
+import beverage_store.cart.CompactCart;
+
+/**
+ * Keeps the carts of signed-in users in the cart table. Changes are buffered in memory, one entry per user
+ * holding the latest cart, and written in batches.
+ */
+public interface CartPersistenceService {
+
+    /**
+     * Saved cart of a user, including changes that haven't been written yet. Empty if there is none.
+     */
+    CompactCart load(String username);
+
+    /**
+     * Remember the user's current cart; it is written by the next flush. An empty cart deletes the saved one.
+     */
+    void save(String username, CompactCart cart);
+
+    /**
+     * Write all buffered carts.
+     *
+     * @return number of carts written or deleted
+     */
+    int flush();
+
+    /**
+     * Write the buffered cart of one user now, e.g. when their session ends.
+     */
+    void flush(String username);
+}
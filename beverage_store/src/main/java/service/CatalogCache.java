@@ -0,0 +1,67 @@
+package beverage_store.service;
+
+import beverage_store.model.Beverage;
+import beverage_store.model.CatalogCacheStats;
+import beverage_store.model.CatalogPage;
+import beverage_store.model.CatalogSnapshot;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, read-through in-process cache in front of BeverageRepository.
+ * Entries are detached entities and must be treated as read-only.
+ * The cache is invalidated by CatalogChangedEvent, so every catalog write path has to publish one.
+ */
+public interface CatalogCache {
+
+    /**
+     * Look up a beverage by id, loading it from the database on a miss.
+     */
+    Optional<Beverage> findById(Long id);
+
+    /**
+     * Look up several beverages at once; misses are loaded with a single query.
+     * Unknown ids are missing from the result.
+     */
+    Map<Long, Beverage> findAllById(Collection<Long> ids);
+
+    /**
+     * Return all beverages, loading them once per catalog version.
+     */
+    CatalogSnapshot getAll();
+
+    /**
+     * Return a cached catalog page, computing it with the loader if it isn't cached for the current version.
+     *
+     * @param key    identifies the page (sort, cursor, size)
+     * @param loader computes the page on a miss
+     */
+    CatalogPage getPage(String key, Supplier<CatalogPage> loader);
+
+    /**
+     * Drop a single beverage and everything derived from the full catalog.
+     */
+    void evict(Long id);
+
+    /**
+     * Drop all cached entries.
+     */
+    void evictAll();
+
+    /**
+     * Current catalog version; changes whenever the cache is invalidated.
+     */
+    long getVersion();
+
+    /**
+     * Time of the last catalog change seen by this instance (startup time before the first one),
+     * in whole seconds so it can be compared with If-Modified-Since.
+     */
+    Instant getLastModified();
+
+    CatalogCacheStats getStats();
+}
@@ -0,0 +1,17 @@
+package beverage_store.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes the whole catalog for external systems without holding it in memory.
+ */
+public interface CatalogExportService {
+
+    /**
+     * Stream all bottles and crates as a JSON array, in id order.
+     *
+     * @return number of beverages written
+     */
+    long writeJson(OutputStream out) throws IOException;
+}
@@ -0,0 +1,33 @@
+package beverage_store.service;
+
+import beverage_store.model.CatalogCursor;
+import beverage_store.model.CatalogSort;
+import beverage_store.model.FacetCounts;
+import beverage_store.model.FacetFilter;
+
+import java.util.List;
+
+/**
+ * Faceted filtering of the catalog over in-memory bitmaps, kept current from CatalogChangedEvent.
+ */
+public interface CatalogFacetService {
+
+    /**
+     * Facet value counts under the given filter.
+     */
+    FacetCounts getCounts(FacetFilter filter);
+
+    /**
+     * Ids of the beverages matching the filter, one keyset page at a time.
+     *
+     * @param cursor  position to continue from, null for the first page
+     * @param forward true to move towards higher sort keys; backward pages come in reverse order
+     * @param limit   maximum number of ids
+     */
+    List<Long> findIds(FacetFilter filter, CatalogSort sort, CatalogCursor cursor, boolean forward, int limit);
+
+    /**
+     * Rebuild the bitmaps from the database.
+     */
+    void rebuild();
+}
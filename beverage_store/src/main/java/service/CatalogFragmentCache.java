@@ -0,0 +1,25 @@
+package beverage_store.service;
+
+import beverage_store.model.CatalogEntry;
+
+import java.util.List;
+
+/**
+ * Rendered HTML of the catalog product table, shared by all visitors until the catalog changes.
+ */
+public interface CatalogFragmentCache {
+
+    /**
+     * HTML of the product table for the given rows.
+     *
+     * @param contextPath   prefix for the links in the table
+     * @param csrfParameter name of the CSRF form field
+     * @param csrfToken     CSRF token of the current request; substituted into the cached markup
+     */
+    String render(List<CatalogEntry> beverages, String contextPath, String csrfParameter, String csrfToken);
+
+    /**
+     * Number of cached fragments.
+     */
+    int size();
+}
@@ -0,0 +1,20 @@
+package beverage_store.service;
+
+import beverage_store.model.ImportFormat;
+import beverage_store.model.ImportReport;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Bulk load of bottles and crates from supplier price lists.
+ */
+public interface CatalogImportService {
+
+    /**
+     * Read the file row by row, validate each row against the Bottle/Crate constraints and insert the
+     * valid ones in batches. Invalid rows are skipped and reported; batches already inserted stay
+     * inserted if the file turns out to be malformed further down.
+     */
+    ImportReport importCatalog(InputStream in, ImportFormat format) throws IOException;
+}
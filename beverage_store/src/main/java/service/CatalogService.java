@@ -0,0 +1,24 @@
+package beverage_store.service;
+
+import beverage_store.model.CatalogPage;
+import beverage_store.model.CatalogSort;
+import beverage_store.model.FacetFilter;
+
+/**
+ * Read side of the beverage catalog as shown on the home page.
+ */
+public interface CatalogService {
+
+    /**
+     * Load one keyset page of the catalog.
+     * At most one of the cursors should be set; with neither the first page is returned.
+     *
+     * @param sort         ordering of the catalog
+     * @param filter       selected facet values, may be empty
+     * @param afterCursor  token of the last row of the previous page (move forward)
+     * @param beforeCursor token of the first row of the next page (move backward)
+     * @param pageSize     requested page size; null or out-of-range values use the configured default
+     * @return the page, never null
+     */
+    CatalogPage getPage(CatalogSort sort, FacetFilter filter, String afterCursor, String beforeCursor, Integer pageSize);
+}
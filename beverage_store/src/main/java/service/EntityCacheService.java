@@ -0,0 +1,27 @@
+package beverage_store.service;
+
+import beverage_store.model.CacheRegionStats;
+
+import java.util.List;
+
+/**
+ * Hibernate second-level cache of the Beverage hierarchy and the cached catalog queries.
+ * Listens to CatalogChangedEvent, so beverages changed outside the entity (bulk or native updates) are evicted too.
+ */
+public interface EntityCacheService {
+
+    /**
+     * Statistics of every second-level cache region, sorted by name.
+     */
+    List<CacheRegionStats> getRegionStats();
+
+    /**
+     * Drop one beverage from the entity region together with all cached query results.
+     */
+    void evict(Long beverageId);
+
+    /**
+     * Drop all beverages and cached query results.
+     */
+    void evictAll();
+}
@@ -0,0 +1,24 @@
+package beverage_store.service;
+
+/**
+ * Transactional outbox for calls to external services. Callers enqueue a message inside their own
+ * transaction, so it is stored if and only if their change commits; a background dispatcher makes the calls.
+ */
+public interface OutboxService {
+
+    /**
+     * Store a message for the topic's {@link beverage_store.outbox.OutboxHandler}. Must be called within a
+     * transaction.
+     *
+     * @param payload serialized as JSON
+     */
+    void enqueue(String topic, Object payload);
+
+    /**
+     * Deliver the messages that are due, in batches. Failed messages are retried with exponential backoff
+     * and marked DEAD after the last attempt.
+     *
+     * @return number of messages delivered
+     */
+    int dispatch();
+}
@@ -1,17 +1,26 @@
 package beverage_store.service;
 
+import beverage_store.model.CartChange;
+import beverage_store.model.CartLine;
+import beverage_store.model.CartTotals;
+import beverage_store.model.Order;
+import beverage_store.model.OrderDTO;
 import beverage_store.model.OrderItem;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 /**
- * Service that manages the current shopping cart (session-scoped).
+ * Service that manages the shopping cart of the current HTTP session.
  */
 public interface ShoppingCartService {
 
     /**
      * Add an item to the cart. Implementations should merge with existing item
      * for the same beverage (increase quantity) when appropriate.
+     * Adding, updating and batch updates throw {@link beverage_store.stock.InsufficientStockException}
+     * when the stock doesn't cover the new quantity.
      *
      * @param item item to add
      */
@@ -24,6 +33,12 @@ public interface ShoppingCartService {
      */
     void updateItem(OrderItem item);
 
+    /**
+     * Set the quantities of several lines in one change (beverage id to new quantity; below 1 removes the line).
+     * Ids that aren't in the cart are ignored. Other requests see either none or all of the changes.
+     */
+    void updateQuantities(Map<Long, Integer> quantities);
+
     /**
      * Return all items currently in the cart.
      *
@@ -31,11 +46,28 @@ public interface ShoppingCartService {
      */
     List<OrderItem> getItemsInCart();
 
+    /**
+     * Number of lines (distinct beverages) in the cart, without loading them.
+     */
+    int getLineCount();
+
+    /**
+     * The cart line of one beverage, without loading it.
+     */
+    Optional<CartLine> getLine(long beverageId);
+
+    /**
+     * Exact cart total, item count and line count; maintained as the cart changes, so this is O(1).
+     */
+    CartTotals getTotals();
+
     /**
      * Calculate and return the total price for items in the cart.
      *
      * @return total price
+     * @deprecated binary floating point; use {@link #getTotals()}
      */
+    @Deprecated
     double getTotal();
 
     /**
@@ -50,4 +82,33 @@ public interface ShoppingCartService {
      * @param item item to remove
      */
     void removeItem(OrderItem item);
+
+    /**
+     * Check the cart against the stored catalog before an order is placed: all its beverages are read with one
+     * query, lines are repriced, lowered to the stock or removed where the catalog changed.
+     *
+     * @return the changes made; empty if the cart is current
+     */
+    List<CartChange> revalidate();
+
+    /**
+     * Place an order for the cart: the order's items are taken out of stock (the cart's reservations for them
+     * are used up), the order is saved and its confirmation is queued for the PDF generator, in one
+     * transaction. If any item is short, the decrements are rolled back and neither the order nor the
+     * confirmation is saved.
+     *
+     * @param order        order built from {@link #getItemsInCart()}
+     * @param confirmation PDF payload of the order; gets the order's id
+     * @return the saved order
+     * @throws beverage_store.stock.InsufficientStockException if the stock no longer covers the cart
+     * @throws org.springframework.dao.DataIntegrityViolationException if an order with the same idempotency key
+     *                                                                 exists; nothing is changed then
+     */
+    Order placeOrder(Order order, OrderDTO confirmation);
+
+    /**
+     * Called after the user signed in: the session's cart is merged into the user's saved cart, and from now
+     * on changes are saved for the user as well.
+     */
+    void restoreSavedCart(String username);
 }
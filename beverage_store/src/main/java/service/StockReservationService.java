@@ -0,0 +1,45 @@
+package beverage_store.service;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Soft stock reservations held by shopping carts. A cart reserves what it holds when items are added, so
+ * customers can't put more into their carts than is in stock; reservations lapse after a while unless the
+ * cart changes them again. Checkout turns the reservations into real stock decrements.
+ */
+public interface StockReservationService {
+
+    /**
+     * Set the quantity a cart holds of a beverage (0 releases it) and restart its expiry.
+     *
+     * @return false if there isn't enough unreserved stock; the previous reservation stays as it was
+     */
+    boolean reserve(String cartId, long beverageId, int quantity);
+
+    /**
+     * Drop the cart's reservations for these beverages.
+     */
+    void release(String cartId, Collection<Long> beverageIds);
+
+    /**
+     * Stock that no cart has reserved.
+     */
+    int available(long beverageId);
+
+    /**
+     * Quantity of a beverage reserved by a cart.
+     */
+    int reservedBy(String cartId, long beverageId);
+
+    /**
+     * Place the order's stock: the cart's reservations are renewed (lapsed ones reserved again), the stock is
+     * decremented in the database and the reservations are dropped. Called in a transaction, they are dropped
+     * after the commit and restored if it rolls back.
+     *
+     * @param quantities beverage id to ordered quantity
+     * @throws beverage_store.stock.InsufficientStockException if some quantities can't be reserved or the
+     *                                                         stored stock is short; nothing is decremented then
+     */
+    void checkout(String cartId, Map<Long, Integer> quantities);
+}
@@ -0,0 +1,19 @@
+package beverage_store.service;
+
+import beverage_store.images.ThumbnailRenderer.Thumbnail;
+import beverage_store.images.ThumbnailSize;
+
+import java.io.IOException;
+
+/**
+ * Scaled-down product pictures, fetched from their origin once and then served from disk.
+ */
+public interface ThumbnailService {
+
+    /**
+     * Thumbnail of a Beverage.pic URL.
+     *
+     * @throws IOException if the origin can't deliver a readable image
+     */
+    Thumbnail getThumbnail(String pic, ThumbnailSize size) throws IOException;
+}
@@ -1,5 +1,6 @@
 package beverage_store.service;
 
+import beverage_store.model.CheckoutCustomer;
 import beverage_store.model.User;
 import beverage_store.model.UserDTO;
 import org.springframework.security.core.Authentication;
@@ -7,6 +8,8 @@ import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
+import java.util.Optional;
+
 /**
  * Service API for user operations.
  */
@@ -27,6 +30,16 @@ public interface UserService {
      */
     User getUser(String userid);
 
+    /**
+     * Email and delivery postal code of a user for checkout, without loading addresses or order history.
+     */
+    Optional<CheckoutCustomer> getCheckoutCustomer(String username);
+
+    /**
+     * Reference to a user for associations (e.g. an order's customer); the user isn't loaded.
+     */
+    User getUserReference(String username);
+
     /**
      * Load user details for authentication.
      */
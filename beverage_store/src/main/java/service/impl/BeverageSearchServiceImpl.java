@@ -0,0 +1,144 @@
+package beverage_store.service.impl;
+
+import beverage_store.event.CatalogChangedEvent;
+import beverage_store.model.Beverage;
+import beverage_store.model.Bottle;
+import beverage_store.model.Crate;
+import beverage_store.model.SearchSuggestion;
+import beverage_store.repository.BottleRepository;
+import beverage_store.repository.CrateRepository;
+import beverage_store.search.InvertedIndex;
+import beverage_store.search.SearchTokenizer;
+import beverage_store.service.BeverageSearchService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps an inverted index of name/supplier terms plus the indexed (detached) beverages,
+ * so queries never touch the database. Crates are also found by the supplier of their bottle.
+ */
+@Slf4j
+@Service
+public class BeverageSearchServiceImpl implements BeverageSearchService {
+
+    private static final Comparator<Beverage> BY_NAME =
+            Comparator.comparing(Beverage::getName, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+                    .thenComparing(Beverage::getId);
+
+    private final BottleRepository bottleRepository;
+    private final CrateRepository crateRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final InvertedIndex index = new InvertedIndex();
+    private final Map<Long, Beverage> documents = new HashMap<>();
+
+    @Autowired
+    public BeverageSearchServiceImpl(BottleRepository bottleRepository, CrateRepository crateRepository) {
+        this.bottleRepository = bottleRepository;
+        this.crateRepository = crateRepository;
+    }
+
+    @Override
+    public List<Beverage> search(String query, int limit) {
+        List<String> terms = SearchTokenizer.tokenize(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        List<Beverage> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            // match everything first so the name ordering isn't biased towards low ids
+            for (Long id : index.match(terms, Integer.MAX_VALUE)) {
+                result.add(documents.get(id));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        result.sort(BY_NAME);
+        return result.size() > limit ? List.copyOf(result.subList(0, limit)) : result;
+    }
+
+    @Override
+    public List<SearchSuggestion> autocomplete(String query, int limit) {
+        return search(query, limit).stream()
+                .map(b -> new SearchSuggestion(b.getId(), b.getName()))
+                .toList();
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Beverage> all = CatalogEntities.loadAll(bottleRepository, crateRepository);
+        lock.writeLock().lock();
+        try {
+            index.clear();
+            documents.clear();
+            all.forEach(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Search index built: {} beverages, {} terms", all.size(), termCount());
+    }
+
+    /**
+     * Re-read only the changed beverages; a full refresh event rebuilds the index.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.isFullRefresh()) {
+            rebuild();
+            return;
+        }
+        for (Long id : event.beverageIds()) {
+            Optional<Beverage> fresh = CatalogEntities.load(id, bottleRepository, crateRepository);
+            lock.writeLock().lock();
+            try {
+                if (fresh.isPresent()) {
+                    put(fresh.get());
+                } else {
+                    index.remove(id);
+                    documents.remove(id);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void put(Beverage beverage) {
+        if (beverage == null || beverage.getId() == null) {
+            return;
+        }
+        List<String> terms = new ArrayList<>(SearchTokenizer.tokenize(beverage.getName()));
+        if (beverage instanceof Bottle bottle) {
+            terms.addAll(SearchTokenizer.tokenize(bottle.getSupplier()));
+        } else if (beverage instanceof Crate crate && crate.getBottle() != null) {
+            // CrateRepository fetches the bottle with the crate, so this doesn't trigger a lazy load
+            terms.addAll(SearchTokenizer.tokenize(crate.getBottle().getSupplier()));
+        }
+        index.put(beverage.getId(), terms);
+        documents.put(beverage.getId(), beverage);
+    }
+
+    private int termCount() {
+        lock.readLock().lock();
+        try {
+            return index.termCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -1,23 +1,34 @@
 package beverage_store.service.impl;
 
+import beverage_store.event.CatalogChangedEvent;
 import beverage_store.model.Beverage;
 import beverage_store.repository.BeverageRepository;
 import beverage_store.service.BeverageService;
+import beverage_store.stock.InsufficientStockException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 @Slf4j
 @Service
 public class BeverageServiceImpl implements BeverageService {
 
     private final BeverageRepository beverageRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public BeverageServiceImpl(BeverageRepository beverageRepository) {
+    public BeverageServiceImpl(BeverageRepository beverageRepository,
+                               ApplicationEventPublisher eventPublisher) {
         this.beverageRepository = beverageRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -37,6 +48,25 @@ public class BeverageServiceImpl implements BeverageService {
         int q = Math.max(0, newQuantity);
         existing.setInStock(q);
         beverageRepository.save(existing);
+        eventPublisher.publishEvent(CatalogChangedEvent.of(beverageId));
         log.info("Updated beverage id {} stock to {}", beverageId, q);
     }
+
+    @Override
+    @Transactional
+    public void decreaseStock(Map<Long, Integer> quantities) {
+        List<Long> missing = new ArrayList<>();
+        // rows are locked in id order, so two orders sharing beverages can't deadlock
+        new TreeMap<>(quantities).forEach((beverageId, quantity) -> {
+            if (beverageRepository.decreaseStockIfAvailable(beverageId, quantity) == 0) {
+                missing.add(beverageId);
+            }
+        });
+        if (!missing.isEmpty()) {
+            log.info("Stock short for beverages {}, rolling back", missing);
+            throw new InsufficientStockException(missing);
+        }
+        eventPublisher.publishEvent(CatalogChangedEvent.of(quantities.keySet()));
+        log.info("Decreased stock of {} beverages", quantities.size());
+    }
 }
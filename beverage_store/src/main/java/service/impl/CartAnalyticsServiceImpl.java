@@ -0,0 +1,228 @@
+package beverage_store.service.impl;
+
+import beverage_store.analytics.CartEvent;
+import beverage_store.analytics.EventRing;
+import beverage_store.model.BeverageRemovals;
+import beverage_store.model.CartActivity;
+import beverage_store.model.CartStats;
+import beverage_store.repository.BeverageRemovalsRepository;
+import beverage_store.repository.CartActivityRepository;
+import beverage_store.service.CartAnalyticsService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cart events go into a lock-free {@link EventRing}; recording one is a CAS and a couple of writes, and a
+ * full ring drops the event and counts it rather than slowing the request down.
+ * <p>
+ * The scheduler drains the ring (cart.analytics.drain-interval-ms), follows each open cart from its first
+ * item to checkout, emptying, session end or going idle (cart.analytics.abandon-after-minutes), and adds the
+ * batch's counters to the daily rows and the per-beverage removal rows in one transaction. A failed write
+ * loses that batch's counters; they are statistics and not worth holding memory for.
+ * Open carts are per instance, like stock reservations.
+ */
+@Slf4j
+@Service
+public class CartAnalyticsServiceImpl implements CartAnalyticsService {
+
+    private static final class OpenCart {
+        private final long started;
+        private long lastActivity;
+
+        private OpenCart(long started) {
+            this.started = started;
+            this.lastActivity = started;
+        }
+    }
+
+    private final CartActivityRepository activityRepository;
+    private final BeverageRemovalsRepository removalsRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final long abandonAfterMillis;
+    private final EventRing<CartEvent> events;
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * Guards the drain, which writes to the database; not synchronized so a virtual thread doesn't pin its carrier.
+     */
+    private final ReentrantLock draining = new ReentrantLock();
+
+    /**
+     * Carts with items that are neither checked out nor abandoned yet; only used while draining.
+     */
+    private final Map<String, OpenCart> open = new HashMap<>();
+
+    @Autowired
+    public CartAnalyticsServiceImpl(CartActivityRepository activityRepository,
+                                    BeverageRemovalsRepository removalsRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${cart.analytics.buffer-size:8192}") int bufferSize,
+                                    @Value("${cart.analytics.abandon-after-minutes:60}") long abandonAfterMinutes) {
+        this(activityRepository, removalsRepository, transactionManager, Clock.systemDefaultZone(), bufferSize,
+                abandonAfterMinutes * 60_000);
+    }
+
+    public CartAnalyticsServiceImpl(CartActivityRepository activityRepository,
+                                    BeverageRemovalsRepository removalsRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    Clock clock, int bufferSize, long abandonAfterMillis) {
+        this.activityRepository = activityRepository;
+        this.removalsRepository = removalsRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+        this.abandonAfterMillis = abandonAfterMillis;
+        this.events = new EventRing<>(bufferSize);
+    }
+
+    @Override
+    public void record(CartEvent.Type type, String cartId, long beverageId, int quantity) {
+        if (!events.offer(new CartEvent(type, cartId, beverageId, quantity, clock.millis()))) {
+            dropped.increment();
+        }
+    }
+
+    @Override
+    @Scheduled(initialDelayString = "${cart.analytics.drain-interval-ms:5000}",
+            fixedDelayString = "${cart.analytics.drain-interval-ms:5000}")
+    public int drain() {
+        draining.lock();
+        try {
+            Map<LocalDate, CartActivity> activity = new HashMap<>();
+            Map<Long, Long> removals = new HashMap<>();
+            // at most one ring's worth per run, so producers that keep up with the drain can't stall it
+            int drained = events.drain(event -> aggregate(event, activity, removals), events.capacity());
+
+            long now = clock.millis();
+            for (Iterator<OpenCart> carts = open.values().iterator(); carts.hasNext(); ) {
+                if (now - carts.next().lastActivity >= abandonAfterMillis) {
+                    carts.remove();
+                    CartActivity day = day(activity, now);
+                    day.setAbandoned(day.getAbandoned() + 1);
+                }
+            }
+
+            if (!activity.isEmpty() || !removals.isEmpty()) {
+                write(activity, removals);
+            }
+            if (drained > 0) {
+                log.debug("Aggregated {} cart events, {} carts open", drained, open.size());
+            }
+            return drained;
+        } finally {
+            draining.unlock();
+        }
+    }
+
+    @Override
+    public CartStats getStats(LocalDate from, LocalDate to) {
+        long started = 0;
+        long checkedOut = 0;
+        long abandoned = 0;
+        long timed = 0;
+        long checkoutMillis = 0;
+        for (CartActivity day : activityRepository.findByDayBetween(from, to)) {
+            started += day.getStarted();
+            checkedOut += day.getCheckedOut();
+            abandoned += day.getAbandoned();
+            timed += day.getTimedCheckouts();
+            checkoutMillis += day.getCheckoutMillis();
+        }
+        return new CartStats(started, checkedOut, abandoned, timed == 0 ? 0 : checkoutMillis / timed,
+                removalsRepository.findTop10ByOrderByRemovalsDesc(), dropped.sum());
+    }
+
+    @PreDestroy
+    public void drainOnShutdown() {
+        drain();
+    }
+
+    private void aggregate(CartEvent event, Map<LocalDate, CartActivity> activity, Map<Long, Long> removals) {
+        long at = event.timestamp();
+        switch (event.type()) {
+            case ADD, UPDATE -> {
+                OpenCart cart = open.get(event.cartId());
+                if (cart == null) {
+                    open.put(event.cartId(), new OpenCart(at));
+                    CartActivity day = day(activity, at);
+                    day.setStarted(day.getStarted() + 1);
+                } else {
+                    cart.lastActivity = at;
+                }
+            }
+            case REMOVE -> {
+                removals.merge(event.beverageId(), 1L, Long::sum);
+                OpenCart cart = open.get(event.cartId());
+                if (cart != null) {
+                    cart.lastActivity = at;
+                }
+            }
+            case CLEAR -> open.remove(event.cartId());
+            case CHECKOUT -> {
+                OpenCart cart = open.remove(event.cartId());
+                CartActivity day = day(activity, at);
+                day.setCheckedOut(day.getCheckedOut() + 1);
+                if (cart != null) {
+                    day.setTimedCheckouts(day.getTimedCheckouts() + 1);
+                    day.setCheckoutMillis(day.getCheckoutMillis() + at - cart.started);
+                }
+            }
+            case SESSION_END -> {
+                if (open.remove(event.cartId()) != null) {
+                    CartActivity day = day(activity, at);
+                    day.setAbandoned(day.getAbandoned() + 1);
+                }
+            }
+        }
+    }
+
+    private CartActivity day(Map<LocalDate, CartActivity> activity, long epochMillis) {
+        return activity.computeIfAbsent(LocalDate.ofInstant(Instant.ofEpochMilli(epochMillis), clock.getZone()),
+                CartActivity::new);
+    }
+
+    private void write(Map<LocalDate, CartActivity> activity, Map<Long, Long> removals) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<LocalDate, CartActivity> days = new HashMap<>();
+                activityRepository.findAllById(activity.keySet()).forEach(day -> days.put(day.getDay(), day));
+                activity.forEach((date, delta) -> {
+                    CartActivity day = days.computeIfAbsent(date, CartActivity::new);
+                    day.setStarted(day.getStarted() + delta.getStarted());
+                    day.setCheckedOut(day.getCheckedOut() + delta.getCheckedOut());
+                    day.setAbandoned(day.getAbandoned() + delta.getAbandoned());
+                    day.setTimedCheckouts(day.getTimedCheckouts() + delta.getTimedCheckouts());
+                    day.setCheckoutMillis(day.getCheckoutMillis() + delta.getCheckoutMillis());
+                });
+                activityRepository.saveAll(days.values());
+
+                Map<Long, BeverageRemovals> beverages = new HashMap<>();
+                removalsRepository.findAllById(removals.keySet())
+                        .forEach(row -> beverages.put(row.getBeverageId(), row));
+                removals.forEach((id, count) -> {
+                    BeverageRemovals row = beverages.computeIfAbsent(id, key -> new BeverageRemovals(key, 0));
+                    row.setRemovals(row.getRemovals() + count);
+                });
+                removalsRepository.saveAll(beverages.values());
+            });
+        } catch (RuntimeException e) {
+            log.warn("Writing cart statistics failed, dropping {} days / {} beverages of counters: {}",
+                    activity.size(), removals.size(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package beverage_store.service.impl;
+
+import beverage_store.cart.CompactCart;
+import beverage_store.model.SavedCart;
+import beverage_store.repository.SavedCartRepository;
+import beverage_store.service.CartPersistenceService;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind cart store. save() only replaces the user's entry in a map, so a burst of clicks costs one
+ * write. flush() runs on a fixed delay (cart.persistence.flush-interval-ms), at session end and on shutdown;
+ * each batch loads the existing rows with one query and sends the inserts, updates and deletes as JDBC batches.
+ * A failed batch goes back into the buffer unless the user changed the cart in the meantime.
+ */
+@Slf4j
+@Service
+public class CartPersistenceServiceImpl implements CartPersistenceService {
+
+    private record Snapshot(byte[] lines, boolean empty) {
+    }
+
+    private final SavedCartRepository savedCartRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    private final ConcurrentHashMap<String, Snapshot> pending = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CartPersistenceServiceImpl(SavedCartRepository savedCartRepository,
+                                      EntityManager entityManager,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${cart.persistence.batch-size:100}") int batchSize) {
+        this.savedCartRepository = savedCartRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Override
+    public CompactCart load(String username) {
+        Snapshot buffered = pending.get(username);
+        byte[] lines = buffered != null
+                ? buffered.lines()
+                : savedCartRepository.findById(username).map(SavedCart::getLines).orElse(null);
+        if (lines == null) {
+            return new CompactCart();
+        }
+        try {
+            return CompactCart.fromBytes(lines);
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring unreadable saved cart of {}: {}", username, e.getMessage());
+            return new CompactCart();
+        }
+    }
+
+    @Override
+    public void save(String username, CompactCart cart) {
+        pending.put(username, new Snapshot(cart.toBytes(), cart.isEmpty()));
+    }
+
+    @Override
+    @Scheduled(initialDelayString = "${cart.persistence.flush-interval-ms:30000}",
+            fixedDelayString = "${cart.persistence.flush-interval-ms:30000}")
+    public int flush() {
+        int written = 0;
+        Map<String, Snapshot> batch = new HashMap<>();
+        for (String username : pending.keySet()) {
+            Snapshot snapshot = pending.remove(username);
+            if (snapshot == null) {
+                continue;
+            }
+            batch.put(username, snapshot);
+            if (batch.size() >= batchSize) {
+                written += write(batch);
+                batch.clear();
+            }
+        }
+        written += write(batch);
+        if (written > 0) {
+            log.debug("Flushed {} carts", written);
+        }
+        return written;
+    }
+
+    @Override
+    public void flush(String username) {
+        Snapshot snapshot = pending.remove(username);
+        if (snapshot != null) {
+            write(Map.of(username, snapshot));
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private int write(Map<String, Snapshot> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Instant now = Instant.now();
+                Map<String, SavedCart> existing = new HashMap<>();
+                savedCartRepository.findAllById(batch.keySet()).forEach(cart -> existing.put(cart.getUsername(), cart));
+
+                List<SavedCart> deleted = new ArrayList<>();
+                batch.forEach((username, snapshot) -> {
+                    SavedCart saved = existing.get(username);
+                    if (snapshot.empty()) {
+                        if (saved != null) {
+                            deleted.add(saved);
+                        }
+                    } else if (saved != null) {
+                        saved.setLines(snapshot.lines());
+                        saved.setUpdatedAt(now);
+                    } else {
+                        entityManager.persist(new SavedCart(username, snapshot.lines(), now));
+                    }
+                });
+                savedCartRepository.deleteAllInBatch(deleted);
+            });
+            return batch.size();
+        } catch (RuntimeException e) {
+            log.warn("Writing {} carts failed, keeping them for the next flush: {}", batch.size(), e.getMessage());
+            batch.forEach(pending::putIfAbsent);
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package beverage_store.service.impl;
+
+import beverage_store.event.CatalogChangedEvent;
+import beverage_store.model.Beverage;
+import beverage_store.model.CatalogCacheStats;
+import beverage_store.model.CatalogPage;
+import beverage_store.model.CatalogSnapshot;
+import beverage_store.repository.BeverageRepository;
+import beverage_store.service.CatalogCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * LRU cache keyed by beverage id plus a versioned snapshot of the full catalog and of rendered pages.
+ * Loads run outside the lock; a load that started before an invalidation is never stored.
+ */
+@Slf4j
+@Service
+public class CatalogCacheImpl implements CatalogCache {
+
+    private final BeverageRepository beverageRepository;
+    private final int maxEntries;
+    private final int maxPages;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong version = new AtomicLong();
+    private final Map<Long, Beverage> byId;
+    private final Map<String, CatalogPage> pages;
+    private volatile CatalogSnapshot snapshot;
+    private volatile long lastModified = wholeSeconds(System.currentTimeMillis());
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    @Autowired
+    public CatalogCacheImpl(BeverageRepository beverageRepository,
+                            @Value("${catalog.cache.max-entries:10000}") int maxEntries,
+                            @Value("${catalog.cache.max-pages:256}") int maxPages) {
+        this.beverageRepository = beverageRepository;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.maxPages = Math.max(1, maxPages);
+        this.byId = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Beverage> eldest) {
+                if (size() > CatalogCacheImpl.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CatalogPage> eldest) {
+                return size() > CatalogCacheImpl.this.maxPages;
+            }
+        };
+    }
+
+    @Override
+    public Optional<Beverage> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        Beverage cached = read(() -> byId.get(id));
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached);
+        }
+        misses.increment();
+        long loadedAt = version.get();
+        Optional<Beverage> loaded = beverageRepository.findById(id);
+        loaded.ifPresent(beverage -> storeIfCurrent(loadedAt, () -> byId.put(id, beverage)));
+        return loaded;
+    }
+
+    @Override
+    public Map<Long, Beverage> findAllById(Collection<Long> ids) {
+        Map<Long, Beverage> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        lock.lock();
+        try {
+            for (Long id : ids) {
+                Beverage cached = id == null ? null : byId.get(id);
+                if (cached != null) {
+                    found.put(id, cached);
+                } else if (id != null) {
+                    missing.add(id);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        hits.add(found.size());
+        if (missing.isEmpty()) {
+            return found;
+        }
+        misses.add(missing.size());
+        long loadedAt = version.get();
+        List<Beverage> loaded = beverageRepository.findAllById(missing);
+        storeIfCurrent(loadedAt, () -> loaded.forEach(beverage -> byId.put(beverage.getId(), beverage)));
+        loaded.forEach(beverage -> found.put(beverage.getId(), beverage));
+        return found;
+    }
+
+    @Override
+    public CatalogSnapshot getAll() {
+        CatalogSnapshot current = snapshot;
+        if (current != null && current.version() == version.get()) {
+            hits.increment();
+            return current;
+        }
+        misses.increment();
+        long loadedAt = version.get();
+        CatalogSnapshot loaded = new CatalogSnapshot(loadedAt, beverageRepository.findAll(Sort.by("id")));
+        storeIfCurrent(loadedAt, () -> snapshot = loaded);
+        return loaded;
+    }
+
+    @Override
+    public CatalogPage getPage(String key, Supplier<CatalogPage> loader) {
+        CatalogPage cached = read(() -> pages.get(key));
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        long loadedAt = version.get();
+        CatalogPage loaded = loader.get();
+        if (loaded != null) {
+            storeIfCurrent(loadedAt, () -> pages.put(key, loaded));
+        }
+        return loaded;
+    }
+
+    @Override
+    public void evict(Long id) {
+        lock.lock();
+        try {
+            version.incrementAndGet();
+            touch();
+            if (id != null && byId.remove(id) != null) {
+                invalidations.increment();
+            }
+            snapshot = null;
+            pages.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void evictAll() {
+        lock.lock();
+        try {
+            version.incrementAndGet();
+            touch();
+            invalidations.add(byId.size());
+            byId.clear();
+            snapshot = null;
+            pages.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
+
+    @Override
+    public Instant getLastModified() {
+        return Instant.ofEpochMilli(lastModified);
+    }
+
+    @Override
+    public CatalogCacheStats getStats() {
+        int size = read(byId::size);
+        return new CatalogCacheStats(hits.sum(), misses.sum(), evictions.sum(), invalidations.sum(), size, version.get());
+    }
+
+    /**
+     * Runs after the writing transaction committed (or right away when there is none),
+     * so a concurrent reader can't re-cache the pre-commit state.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.isFullRefresh()) {
+            evictAll();
+        } else {
+            event.beverageIds().forEach(this::evict);
+        }
+        log.debug("Catalog cache invalidated for {} (version {})",
+                event.isFullRefresh() ? "all beverages" : event.beverageIds(), version.get());
+    }
+
+    /**
+     * Change times are whole seconds, like HTTP dates, and strictly increasing, so a client that saw
+     * one change can't miss a second one within the same second. Called with the lock held.
+     */
+    private void touch() {
+        lastModified = Math.max(wholeSeconds(System.currentTimeMillis()), lastModified + 1000);
+    }
+
+    private static long wholeSeconds(long millis) {
+        return millis / 1000 * 1000;
+    }
+
+    private <T> T read(Supplier<T> reader) {
+        // access-ordered LinkedHashMap reorders on get(), so reads need the lock as well
+        lock.lock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void storeIfCurrent(long loadedAt, Runnable store) {
+        lock.lock();
+        try {
+            if (version.get() == loadedAt) {
+                store.run();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package beverage_store.service.impl;
+
+import beverage_store.model.Beverage;
+import beverage_store.repository.BottleRepository;
+import beverage_store.repository.CrateRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Loads beverages for the in-memory catalog indexes. Crates come with their bottle
+ * (see CrateRepository) so indexes can read bottle attributes from detached crates.
+ */
+final class CatalogEntities {
+
+    private CatalogEntities() {
+    }
+
+    static List<Beverage> loadAll(BottleRepository bottleRepository, CrateRepository crateRepository) {
+        List<Beverage> all = new ArrayList<>(bottleRepository.findAll());
+        all.addAll(crateRepository.findAll());
+        return all;
+    }
+
+    static Optional<Beverage> load(Long id, BottleRepository bottleRepository, CrateRepository crateRepository) {
+        return crateRepository.findById(id).<Beverage>map(crate -> crate)
+                .or(() -> bottleRepository.findById(id));
+    }
+}
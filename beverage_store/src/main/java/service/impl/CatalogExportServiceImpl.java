@@ -0,0 +1,98 @@
+package beverage_store.service.impl;
+
+import beverage_store.model.Beverage;
+import beverage_store.model.Bottle;
+import beverage_store.model.Crate;
+import beverage_store.model.Facet;
+import beverage_store.repository.BeverageRepository;
+import beverage_store.service.CatalogExportService;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes rows with the Jackson streaming generator as they come off the database cursor.
+ * Each row is detached once written, so the persistence context stays empty however large the catalog is.
+ */
+@Slf4j
+@Service
+public class CatalogExportServiceImpl implements CatalogExportService {
+
+    private final BeverageRepository beverageRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public CatalogExportServiceImpl(BeverageRepository beverageRepository,
+                                    EntityManager entityManager,
+                                    ObjectMapper objectMapper) {
+        this.beverageRepository = beverageRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long writeJson(OutputStream out) throws IOException {
+        long count = 0;
+        try (Stream<Beverage> rows = beverageRepository.streamAllByOrderByIdAsc();
+             JsonGenerator json = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            // the caller owns the response stream
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartArray();
+            Iterator<Beverage> it = rows.iterator();
+            while (it.hasNext()) {
+                Beverage beverage = it.next();
+                write(json, beverage);
+                entityManager.detach(beverage);
+                count++;
+            }
+            json.writeEndArray();
+        }
+        log.info("Exported {} beverages as JSON", count);
+        return count;
+    }
+
+    private static void write(JsonGenerator json, Beverage beverage) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", beverage.getId());
+        json.writeStringField("type", Facet.typeOf(beverage));
+        json.writeStringField("name", beverage.getName());
+        json.writeStringField("pic", beverage.getPic());
+        json.writeNumberField("price", beverage.getPrice());
+        json.writeNumberField("inStock", beverage.getInStock());
+        if (beverage instanceof Bottle bottle) {
+            writeNumber(json, "volume", bottle.getVolume());
+            json.writeBooleanField("alcoholic", bottle.isAlcoholic());
+            writeNumber(json, "volumePercent", bottle.getVolumePercent());
+            json.writeStringField("supplier", bottle.getSupplier());
+        } else if (beverage instanceof Crate crate) {
+            json.writeNumberField("noOfBottles", crate.getNoOfBottles() == null ? 0 : crate.getNoOfBottles());
+            // reading the id of the lazy bottle proxy doesn't load it
+            if (crate.getBottle() != null) {
+                json.writeNumberField("bottleId", crate.getBottle().getId());
+            } else {
+                json.writeNullField("bottleId");
+            }
+        }
+        json.writeEndObject();
+    }
+
+    private static void writeNumber(JsonGenerator json, String field, Double value) throws IOException {
+        if (value == null) {
+            json.writeNullField(field);
+        } else {
+            json.writeNumberField(field, value);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package beverage_store.service.impl;
+
+import beverage_store.event.CatalogChangedEvent;
+import beverage_store.model.Beverage;
+import beverage_store.model.Bottle;
+import beverage_store.model.CatalogCursor;
+import beverage_store.model.CatalogSort;
+import beverage_store.model.Crate;
+import beverage_store.model.Facet;
+import beverage_store.model.FacetCounts;
+import beverage_store.model.FacetFilter;
+import beverage_store.repository.BottleRepository;
+import beverage_store.repository.CrateRepository;
+import beverage_store.search.FacetIndex;
+import beverage_store.service.CatalogFacetService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Service
+public class CatalogFacetServiceImpl implements CatalogFacetService {
+
+    private final BottleRepository bottleRepository;
+    private final CrateRepository crateRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final FacetIndex index = new FacetIndex();
+
+    @Autowired
+    public CatalogFacetServiceImpl(BottleRepository bottleRepository, CrateRepository crateRepository) {
+        this.bottleRepository = bottleRepository;
+        this.crateRepository = crateRepository;
+    }
+
+    @Override
+    public FacetCounts getCounts(FacetFilter filter) {
+        lock.readLock().lock();
+        try {
+            return index.counts(filter == null ? FacetFilter.none() : filter);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Long> findIds(FacetFilter filter, CatalogSort sort, CatalogCursor cursor, boolean forward, int limit) {
+        lock.readLock().lock();
+        try {
+            return index.seek(index.select(filter), sort, cursor, forward, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Beverage> all = CatalogEntities.loadAll(bottleRepository, crateRepository);
+        lock.writeLock().lock();
+        try {
+            index.clear();
+            all.forEach(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Facet index built: {} beverages", all.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.isFullRefresh()) {
+            rebuild();
+            return;
+        }
+        for (Long id : event.beverageIds()) {
+            Optional<Beverage> fresh = CatalogEntities.load(id, bottleRepository, crateRepository);
+            lock.writeLock().lock();
+            try {
+                if (fresh.isPresent()) {
+                    put(fresh.get());
+                } else {
+                    index.remove(id);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void put(Beverage beverage) {
+        if (beverage == null || beverage.getId() == null) {
+            return;
+        }
+        Bottle bottle = beverage instanceof Crate crate ? crate.getBottle()
+                : beverage instanceof Bottle single ? single : null;
+        Map<Facet, String> values = new EnumMap<>(Facet.class);
+        values.put(Facet.TYPE, Facet.typeOf(beverage));
+        values.put(Facet.PRICE, Facet.priceBandOf(beverage.getPrice()));
+        if (bottle != null) {
+            values.put(Facet.ALCOHOLIC, bottle.isAlcoholic() ? "yes" : "no");
+            values.put(Facet.VOLUME, Facet.volumeOf(bottle.getVolume()));
+            values.put(Facet.ALCOHOL_CONTENT, Facet.alcoholBandOf(bottle.getVolumePercent()));
+            values.put(Facet.SUPPLIER, bottle.getSupplier());
+        }
+        index.put(beverage.getId(), beverage.getName(), values);
+    }
+}
@@ -0,0 +1,123 @@
+package beverage_store.service.impl;
+
+import beverage_store.images.ThumbnailUrls;
+import beverage_store.model.CatalogEntry;
+import beverage_store.service.CatalogCache;
+import beverage_store.service.CatalogFragmentCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Renders the product table outside of any request and keeps the markup per catalog version.
+ * The CSRF token is rendered as a placeholder and swapped in per request, so a hit is a string copy.
+ */
+@Slf4j
+@Service
+public class CatalogFragmentCacheImpl implements CatalogFragmentCache {
+
+    static final String TEMPLATE = "fragments/catalogTable";
+    static final String FRAGMENT = "catalogTable";
+
+    // names and pics can't contain this (see the Beverage constraints), so it survives escaping and is unique
+    static final String CSRF_PLACEHOLDER = "__catalog_csrf_token__";
+
+    private record Key(String contextPath, String csrfParameter, List<CatalogEntry> beverages) {
+    }
+
+    private final ITemplateEngine templateEngine;
+    private final CatalogCache catalogCache;
+    private final ThumbnailUrls thumbnails;
+    private final int maxEntries;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Key, String> fragments;
+    private long version = -1;
+
+    @Autowired
+    public CatalogFragmentCacheImpl(ITemplateEngine templateEngine,
+                                    CatalogCache catalogCache,
+                                    ThumbnailUrls thumbnails,
+                                    @Value("${catalog.fragment-cache.max-entries:256}") int maxEntries) {
+        this.templateEngine = templateEngine;
+        this.catalogCache = catalogCache;
+        this.thumbnails = thumbnails;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.fragments = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, String> eldest) {
+                return size() > CatalogFragmentCacheImpl.this.maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public String render(List<CatalogEntry> beverages, String contextPath, String csrfParameter, String csrfToken) {
+        long current = catalogCache.getVersion();
+        Key key = new Key(contextPath, csrfParameter, List.copyOf(beverages));
+        String html = lookup(current, key);
+        if (html == null) {
+            html = renderTemplate(key);
+            store(current, key, html);
+        }
+        return html.replace(CSRF_PLACEHOLDER, csrfToken == null ? "" : HtmlUtils.htmlEscape(csrfToken));
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return fragments.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private String lookup(long current, Key key) {
+        lock.lock();
+        try {
+            if (current > version) {
+                // the catalog changed since these were rendered
+                fragments.clear();
+                version = current;
+                return null;
+            }
+            return current == version ? fragments.get(key) : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void store(long renderedAt, Key key, String html) {
+        lock.lock();
+        try {
+            if (version == renderedAt) {
+                fragments.put(key, html);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private String renderTemplate(Key key) {
+        Context context = new Context(Locale.ROOT);
+        context.setVariable("beverages", key.beverages());
+        context.setVariable("contextPath", key.contextPath());
+        context.setVariable("thumbnails", thumbnails);
+        context.setVariable("csrfParameter", key.csrfParameter());
+        context.setVariable("csrfToken", CSRF_PLACEHOLDER);
+        log.debug("Rendering catalog table for {} beverages", key.beverages().size());
+        return templateEngine.process(TEMPLATE, Set.of(FRAGMENT), context);
+    }
+}
@@ -0,0 +1,267 @@
+package beverage_store.service.impl;
+
+import beverage_store.event.CatalogChangedEvent;
+import beverage_store.model.Beverage;
+import beverage_store.model.Bottle;
+import beverage_store.model.Crate;
+import beverage_store.model.ImportFormat;
+import beverage_store.model.ImportReport;
+import beverage_store.model.ImportRow;
+import beverage_store.repository.BottleRepository;
+import beverage_store.service.CatalogImportService;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Streams the file through a Jackson MappingIterator and persists rows in chunks, one transaction
+ * per chunk. Inserts are batched by Hibernate (hibernate.jdbc.batch_size) and ids come from the
+ * pooled beverage sequence, so a chunk costs a handful of round-trips. The persistence context is
+ * cleared after every chunk.
+ * Crates whose bottle hasn't been inserted yet wait until the end of the file.
+ */
+@Slf4j
+@Service
+public class CatalogImportServiceImpl implements CatalogImportService {
+
+    private record Pending(long row, Beverage beverage, Long bottleId) {
+    }
+
+    private record PendingCrate(long row, Crate crate, String bottleName) {
+    }
+
+    private final BottleRepository bottleRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+
+    private final CsvMapper csvMapper = CsvMapper.builder()
+            .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+            .enable(CsvParser.Feature.TRIM_SPACES)
+            .build();
+
+    @Autowired
+    public CatalogImportServiceImpl(BottleRepository bottleRepository,
+                                    EntityManager entityManager,
+                                    PlatformTransactionManager transactionManager,
+                                    Validator validator,
+                                    ObjectMapper objectMapper,
+                                    ApplicationEventPublisher eventPublisher,
+                                    @Value("${catalog.import.chunk-size:1000}") int chunkSize) {
+        this.bottleRepository = bottleRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    @Override
+    public ImportReport importCatalog(InputStream in, ImportFormat format) throws IOException {
+        long start = System.nanoTime();
+        ImportReport report = new ImportReport();
+        report.setFormat(format);
+
+        Map<String, Long> bottleIds = new HashMap<>();
+        bottleRepository.findAllRefs().forEach(ref -> bottleIds.putIfAbsent(nameKey(ref.name()), ref.id()));
+        List<Pending> chunk = new ArrayList<>(chunkSize);
+        List<PendingCrate> waiting = new ArrayList<>();
+
+        try (MappingIterator<ImportRow> rows = reader(in, format)) {
+            long row = 0;
+            while (true) {
+                ImportRow next;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    row++;
+                    next = rows.nextValue();
+                } catch (JsonParseException e) {
+                    // the file itself is broken; we can't find the next row reliably
+                    report.reject(row, "Unreadable file: " + e.getOriginalMessage());
+                    break;
+                } catch (JsonMappingException e) {
+                    report.reject(row, "Invalid value: " + e.getOriginalMessage());
+                    continue;
+                }
+                report.setRowsRead(row);
+                accept(row, next, bottleIds, chunk, waiting, report);
+                if (chunk.size() >= chunkSize) {
+                    persist(chunk, bottleIds, report);
+                }
+            }
+            persist(chunk, bottleIds, report);
+
+            for (PendingCrate pending : waiting) {
+                Long bottleId = bottleIds.get(nameKey(pending.bottleName()));
+                if (bottleId == null) {
+                    report.reject(pending.row(), "bottle: no bottle named '" + pending.bottleName() + "'");
+                    continue;
+                }
+                chunk.add(new Pending(pending.row(), pending.crate(), bottleId));
+                if (chunk.size() >= chunkSize) {
+                    persist(chunk, bottleIds, report);
+                }
+            }
+            persist(chunk, bottleIds, report);
+        } finally {
+            report.setDurationMillis((System.nanoTime() - start) / 1_000_000);
+            if (report.getInserted() > 0) {
+                eventPublisher.publishEvent(CatalogChangedEvent.all());
+            }
+        }
+
+        log.info("Imported {} bottles and {} crates from {} {} rows ({} rejected) in {} ms, {} rows/s",
+                report.getBottlesInserted(), report.getCratesInserted(), report.getRowsRead(), format,
+                report.getRejected(), report.getDurationMillis(), Math.round(report.getRowsPerSecond()));
+        return report;
+    }
+
+    private MappingIterator<ImportRow> reader(InputStream in, ImportFormat format) throws IOException {
+        if (format == ImportFormat.JSON) {
+            // a top-level array is read element by element
+            return objectMapper.readerFor(ImportRow.class).readValues(in);
+        }
+        CsvSchema schema = CsvSchema.emptySchema().withHeader();
+        return csvMapper.readerFor(ImportRow.class).with(schema).readValues(in);
+    }
+
+    private void accept(long row, ImportRow data, Map<String, Long> bottleIds,
+                        List<Pending> chunk, List<PendingCrate> waiting, ImportReport report) {
+        Beverage beverage;
+        try {
+            beverage = data.isCrate() ? toCrate(data) : toBottle(data);
+        } catch (IllegalArgumentException e) {
+            // Bottle setters reject out-of-range values before validation gets to see them
+            report.reject(row, e.getMessage());
+            return;
+        }
+
+        String violations = violations(beverage);
+        if (!violations.isEmpty()) {
+            report.reject(row, violations);
+            return;
+        }
+
+        if (beverage instanceof Crate crate) {
+            Long bottleId = data.bottleId();
+            if (bottleId == null && data.bottle() == null) {
+                report.reject(row, "bottle: Bottle is required");
+                return;
+            }
+            if (bottleId == null) {
+                bottleId = bottleIds.get(nameKey(data.bottle()));
+            }
+            if (bottleId == null) {
+                // maybe further down the file
+                waiting.add(new PendingCrate(row, crate, data.bottle()));
+                return;
+            }
+            chunk.add(new Pending(row, crate, bottleId));
+            return;
+        }
+        chunk.add(new Pending(row, beverage, null));
+    }
+
+    private static Bottle toBottle(ImportRow data) {
+        Bottle bottle = new Bottle();
+        fill(bottle, data);
+        if (data.volume() != null) {
+            bottle.setVolume(data.volume());
+        }
+        bottle.setVolumePercent(data.volumePercent());
+        bottle.setSupplier(data.supplier());
+        return bottle;
+    }
+
+    private static Crate toCrate(ImportRow data) {
+        Crate crate = new Crate();
+        fill(crate, data);
+        crate.setNoOfBottles(data.noOfBottles());
+        return crate;
+    }
+
+    private static void fill(Beverage beverage, ImportRow data) {
+        beverage.setName(data.name());
+        beverage.setPrice(data.price());
+        beverage.setPic(data.pic());
+        beverage.setInStock(data.inStock() == null ? 0 : data.inStock());
+    }
+
+    /**
+     * Constraint violations as one message; a crate's bottle is resolved separately.
+     */
+    private String violations(Beverage beverage) {
+        return validator.validate(beverage).stream()
+                .filter(v -> !(beverage instanceof Crate && "bottle".equals(v.getPropertyPath().toString())))
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private void persist(List<Pending> chunk, Map<String, Long> bottleIds, ImportReport report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Pending pending : chunk) {
+                    if (pending.beverage() instanceof Crate crate) {
+                        crate.setBottle(entityManager.getReference(Bottle.class, pending.bottleId()));
+                    }
+                    entityManager.persist(pending.beverage());
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        } catch (RuntimeException e) {
+            // e.g. a bottleId that doesn't exist; the whole chunk was rolled back
+            log.warn("Import chunk of {} rows failed: {}", chunk.size(), e.getMessage());
+            for (Pending pending : chunk) {
+                report.reject(pending.row(), "not inserted, its batch failed: " + e.getMessage());
+            }
+            chunk.clear();
+            return;
+        }
+        for (Pending pending : chunk) {
+            if (pending.beverage() instanceof Bottle bottle) {
+                bottleIds.putIfAbsent(nameKey(bottle.getName()), bottle.getId());
+                report.setBottlesInserted(report.getBottlesInserted() + 1);
+            } else {
+                report.setCratesInserted(report.getCratesInserted() + 1);
+            }
+        }
+        chunk.clear();
+    }
+
+    private static String nameKey(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,135 @@
+package beverage_store.service.impl;
+
+import beverage_store.model.CatalogCursor;
+import beverage_store.model.CatalogEntry;
+import beverage_store.model.CatalogPage;
+import beverage_store.model.CatalogSort;
+import beverage_store.model.FacetFilter;
+import beverage_store.repository.BeverageRepository;
+import beverage_store.service.CatalogCache;
+import beverage_store.service.CatalogFacetService;
+import beverage_store.service.CatalogService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class CatalogServiceImpl implements CatalogService {
+
+    static final int MAX_PAGE_SIZE = 100;
+
+    private final BeverageRepository beverageRepository;
+    private final CatalogCache catalogCache;
+    private final CatalogFacetService facetService;
+    private final int defaultPageSize;
+
+    @Autowired
+    public CatalogServiceImpl(BeverageRepository beverageRepository,
+                              CatalogCache catalogCache,
+                              CatalogFacetService facetService,
+                              @Value("${catalog.page-size:20}") int defaultPageSize) {
+        this.beverageRepository = beverageRepository;
+        this.catalogCache = catalogCache;
+        this.facetService = facetService;
+        this.defaultPageSize = Math.max(1, Math.min(MAX_PAGE_SIZE, defaultPageSize));
+    }
+
+    @Override
+    public CatalogPage getPage(CatalogSort sort, FacetFilter filter, String afterCursor, String beforeCursor,
+                               Integer pageSize) {
+        CatalogSort order = sort == null ? CatalogSort.ID : sort;
+        FacetFilter facets = filter == null ? FacetFilter.none() : filter;
+        int size = (pageSize == null || pageSize < 1 || pageSize > MAX_PAGE_SIZE) ? defaultPageSize : pageSize;
+        CatalogCursor after = matching(order, CatalogCursor.decode(afterCursor));
+        CatalogCursor before = after == null ? matching(order, CatalogCursor.decode(beforeCursor)) : null;
+
+        String key = order + "|" + size + "|" + (after != null ? "a" + after.encode() : "")
+                + (before != null ? "b" + before.encode() : "") + "|" + facets.toKey();
+        return catalogCache.getPage(key, () -> loadPage(order, facets, size, after, before));
+    }
+
+    private CatalogPage loadPage(CatalogSort order, FacetFilter facets, int size,
+                                 CatalogCursor after, CatalogCursor before) {
+        // fetch one extra row to find out whether another page exists in the direction of travel
+        Limit limit = Limit.of(size + 1);
+        boolean backwards = before != null;
+        List<CatalogEntry> rows;
+        if (!facets.isEmpty()) {
+            // filtered: the facet bitmaps pick the ids, the database only loads the page itself
+            List<Long> ids = facetService.findIds(facets, order, backwards ? before : after, !backwards, size + 1);
+            rows = loadInOrder(ids);
+        } else {
+            rows = backwards ? fetchBefore(order, before, limit) : fetchAfter(order, after, limit);
+        }
+
+        boolean more = rows.size() > size;
+        List<CatalogEntry> beverages = new ArrayList<>(more ? rows.subList(0, size) : rows);
+        if (backwards) {
+            Collections.reverse(beverages);
+        }
+
+        String next = null;
+        String previous = null;
+        if (!beverages.isEmpty()) {
+            boolean hasNext = backwards || more;
+            boolean hasPrevious = backwards ? more : after != null;
+            next = hasNext ? cursorOf(order, beverages.get(beverages.size() - 1)) : null;
+            previous = hasPrevious ? cursorOf(order, beverages.get(0)) : null;
+        }
+        log.debug("Catalog page sort={} size={} rows={} next={} previous={}", order, size, beverages.size(), next, previous);
+        return new CatalogPage(beverages, order, size, next, previous);
+    }
+
+    private List<CatalogEntry> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, CatalogEntry> byId = beverageRepository.findEntriesByIdIn(ids).stream()
+                .collect(Collectors.toMap(CatalogEntry::id, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * A cursor taken from a page with a different sort order is meaningless; start over instead.
+     */
+    private static CatalogCursor matching(CatalogSort sort, CatalogCursor cursor) {
+        if (cursor == null || (sort == CatalogSort.NAME) != (cursor.name() != null)) {
+            return null;
+        }
+        return cursor;
+    }
+
+    private List<CatalogEntry> fetchAfter(CatalogSort sort, CatalogCursor after, Limit limit) {
+        if (sort == CatalogSort.NAME) {
+            return after == null
+                    ? beverageRepository.findFirstPageByName(limit)
+                    : beverageRepository.findPageAfterName(after.name(), after.id(), limit);
+        }
+        return beverageRepository.findPageAfterId(after == null ? 0L : after.id(), limit);
+    }
+
+    private List<CatalogEntry> fetchBefore(CatalogSort sort, CatalogCursor before, Limit limit) {
+        if (sort == CatalogSort.NAME) {
+            return beverageRepository.findPageBeforeName(before.name(), before.id(), limit);
+        }
+        return beverageRepository.findPageBeforeId(before.id(), limit);
+    }
+
+    private static String cursorOf(CatalogSort sort, CatalogEntry entry) {
+        String name = sort == CatalogSort.NAME ? entry.name() : null;
+        return new CatalogCursor(name, entry.id()).encode();
+    }
+}
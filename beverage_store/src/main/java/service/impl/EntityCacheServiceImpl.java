@@ -0,0 +1,92 @@
+package beverage_store.service.impl;
+
+import beverage_store.event.CatalogChangedEvent;
+import beverage_store.model.Beverage;
+import beverage_store.model.CacheRegionStats;
+import beverage_store.service.EntityCacheService;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.cache.spi.DomainDataRegion;
+import org.hibernate.cache.spi.QueryResultsRegion;
+import org.hibernate.cache.spi.Region;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@Slf4j
+@Service
+public class EntityCacheServiceImpl implements EntityCacheService {
+
+    private final SessionFactory sessionFactory;
+
+    @Autowired
+    public EntityCacheServiceImpl(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    @Override
+    public List<CacheRegionStats> getRegionStats() {
+        Statistics statistics = sessionFactory.getStatistics();
+        CacheImplementor cache = (CacheImplementor) sessionFactory.getCache();
+        String[] regions = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(regions);
+
+        List<CacheRegionStats> result = new ArrayList<>(regions.length);
+        for (String name : regions) {
+            Region region = cache.getRegion(name);
+            if (region instanceof DomainDataRegion) {
+                result.add(toStats(name, "entity", statistics.getDomainDataRegionStatistics(name)));
+            } else if (region instanceof QueryResultsRegion) {
+                result.add(toStats(name, "query", statistics.getQueryRegionStatistics(name)));
+            }
+            // the update-timestamps region keeps no per-region counters
+        }
+        return result;
+    }
+
+    private static CacheRegionStats toStats(String region, String kind, CacheRegionStatistics stats) {
+        long entries = stats.getElementCountInMemory();
+        return new CacheRegionStats(region, kind, stats.getHitCount(), stats.getMissCount(), stats.getPutCount(),
+                entries == CacheRegionStatistics.NO_EXTENDED_STAT_SUPPORT_RETURN ? -1 : entries);
+    }
+
+    @Override
+    public void evict(Long beverageId) {
+        Cache cache = sessionFactory.getCache();
+        if (beverageId != null) {
+            cache.evictEntityData(Beverage.class, beverageId);
+        }
+        cache.evictQueryRegions();
+    }
+
+    @Override
+    public void evictAll() {
+        Cache cache = sessionFactory.getCache();
+        cache.evictEntityData(Beverage.class);
+        cache.evictQueryRegions();
+    }
+
+    /**
+     * Runs after commit, like the catalog cache, so the next load reads the committed row.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.isFullRefresh()) {
+            evictAll();
+        } else {
+            Cache cache = sessionFactory.getCache();
+            event.beverageIds().forEach(id -> cache.evictEntityData(Beverage.class, id));
+            cache.evictQueryRegions();
+        }
+        log.debug("Second-level cache evicted for {}", event.isFullRefresh() ? "all beverages" : event.beverageIds());
+    }
+}
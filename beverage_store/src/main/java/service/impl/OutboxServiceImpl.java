@@ -0,0 +1,189 @@
+package beverage_store.service.impl;
+
+import beverage_store.model.OutboxMessage;
+import beverage_store.outbox.OutboxHandler;
+import beverage_store.repository.OutboxRepository;
+import beverage_store.service.OutboxService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Outbox dispatcher. Each run (outbox.dispatch-interval-ms) claims up to outbox.batch-size due messages in one
+ * short transaction by moving their due time a lease ahead; the version column makes a concurrent claim by
+ * another instance fail instead of delivering twice. The calls are made outside any transaction, then the
+ * outcomes are written back in one more: delivered messages are deleted, failed ones are due again after
+ * outbox.backoff-initial-ms, doubled per attempt up to outbox.backoff-max-ms, and DEAD after
+ * outbox.max-attempts. A message whose lease runs out (dispatcher stopped mid-batch) is simply due again.
+ */
+@Slf4j
+@Service
+public class OutboxServiceImpl implements OutboxService {
+
+    private record Outcome(boolean delivered, String error) {
+    }
+
+    private final OutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, OutboxHandler> handlers = new HashMap<>();
+    private final Clock clock;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final long leaseMillis;
+
+    /**
+     * One dispatch at a time per instance; a lock rather than synchronized because the calls block on a
+     * virtual thread when spring.threads.virtual.enabled is set.
+     */
+    private final ReentrantLock dispatching = new ReentrantLock();
+
+    @Autowired
+    public OutboxServiceImpl(OutboxRepository outboxRepository,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager,
+                             List<OutboxHandler> handlers,
+                             @Value("${outbox.batch-size:50}") int batchSize,
+                             @Value("${outbox.max-attempts:10}") int maxAttempts,
+                             @Value("${outbox.backoff-initial-ms:1000}") long initialBackoffMillis,
+                             @Value("${outbox.backoff-max-ms:3600000}") long maxBackoffMillis,
+                             @Value("${outbox.lease-ms:300000}") long leaseMillis) {
+        this(outboxRepository, objectMapper, transactionManager, handlers, Clock.systemUTC(), batchSize,
+                maxAttempts, initialBackoffMillis, maxBackoffMillis, leaseMillis);
+    }
+
+    public OutboxServiceImpl(OutboxRepository outboxRepository, ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager, List<OutboxHandler> handlers,
+                             Clock clock, int batchSize, int maxAttempts, long initialBackoffMillis,
+                             long maxBackoffMillis, long leaseMillis) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        handlers.forEach(handler -> this.handlers.put(handler.topic(), handler));
+        this.clock = clock;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.leaseMillis = leaseMillis;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String topic, Object payload) {
+        try {
+            outboxRepository.save(new OutboxMessage(topic, objectMapper.writeValueAsString(payload), clock.instant()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Outbox payload for " + topic + " can't be serialized", e);
+        }
+    }
+
+    @Override
+    @Scheduled(initialDelayString = "${outbox.dispatch-interval-ms:1000}",
+            fixedDelayString = "${outbox.dispatch-interval-ms:1000}")
+    public int dispatch() {
+        dispatching.lock();
+        try {
+            int delivered = 0;
+            while (true) {
+                List<OutboxMessage> batch = claim();
+                if (batch.isEmpty()) {
+                    return delivered;
+                }
+                Map<Long, Outcome> outcomes = new HashMap<>();
+                for (OutboxMessage message : batch) {
+                    Outcome outcome = deliver(message);
+                    outcomes.put(message.getId(), outcome);
+                    if (outcome.delivered()) {
+                        delivered++;
+                    }
+                }
+                record(outcomes);
+                if (batch.size() < batchSize) {
+                    return delivered;
+                }
+            }
+        } finally {
+            dispatching.unlock();
+        }
+    }
+
+    private List<OutboxMessage> claim() {
+        try {
+            return transactionTemplate.execute(status -> {
+                Instant now = clock.instant();
+                List<OutboxMessage> due = outboxRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                        OutboxMessage.Status.PENDING, now, Limit.of(batchSize));
+                due.forEach(message -> message.setNextAttemptAt(now.plusMillis(leaseMillis)));
+                return due;
+            });
+        } catch (RuntimeException e) {
+            // most likely another instance claimed some of them first; the next run tries again
+            log.info("Claiming outbox messages failed: {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    private Outcome deliver(OutboxMessage message) {
+        OutboxHandler handler = handlers.get(message.getTopic());
+        if (handler == null) {
+            return new Outcome(false, "No handler for topic " + message.getTopic());
+        }
+        try {
+            handler.deliver(message.getPayload());
+            return new Outcome(true, null);
+        } catch (Exception e) {
+            log.warn("Delivering outbox message {} ({}) failed: {}", message.getId(), message.getTopic(), e.getMessage());
+            return new Outcome(false, String.valueOf(e.getMessage()));
+        }
+    }
+
+    private void record(Map<Long, Outcome> outcomes) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Instant now = clock.instant();
+            for (OutboxMessage message : outboxRepository.findAllById(outcomes.keySet())) {
+                Outcome outcome = outcomes.get(message.getId());
+                if (outcome.delivered()) {
+                    outboxRepository.delete(message);
+                    continue;
+                }
+                int attempts = message.getAttempts() + 1;
+                message.setAttempts(attempts);
+                message.setLastError(outcome.error().length() > 1000 ? outcome.error().substring(0, 1000) : outcome.error());
+                if (attempts >= maxAttempts) {
+                    message.setStatus(OutboxMessage.Status.DEAD);
+                    log.error("Outbox message {} ({}) is dead after {} attempts: {}", message.getId(),
+                            message.getTopic(), attempts, message.getLastError());
+                } else {
+                    message.setNextAttemptAt(now.plusMillis(backoff(attempts)));
+                }
+            }
+        });
+    }
+
+    /**
+     * Delay before the next attempt after the given number of failed ones.
+     */
+    private long backoff(int attempts) {
+        int doublings = Math.min(attempts - 1, 30);
+        return Math.min(maxBackoffMillis, initialBackoffMillis << doublings);
+    }
+}
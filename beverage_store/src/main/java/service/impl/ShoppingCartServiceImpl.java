@@ -1,59 +1,91 @@
 package beverage_store.service.impl;
 
+import beverage_store.analytics.CartEvent;
+import beverage_store.cart.CompactCart;
+import beverage_store.cart.SessionCart;
+import beverage_store.model.Beverage;
+import beverage_store.model.CatalogEntry;
+import beverage_store.model.CartChange;
+import beverage_store.model.CartLine;
+import beverage_store.model.CartTotals;
+import beverage_store.model.Money;
 import beverage_store.model.Order;
+import beverage_store.model.OrderDTO;
 import beverage_store.model.OrderItem;
+import beverage_store.outbox.PdfFunctionHandler;
+import beverage_store.repository.BeverageRepository;
+import beverage_store.repository.OrderRepository;
+import beverage_store.service.CartAnalyticsService;
+import beverage_store.service.CartPersistenceService;
+import beverage_store.service.CatalogCache;
+import beverage_store.service.OutboxService;
 import beverage_store.service.ShoppingCartService;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import beverage_store.service.StockReservationService;
+import beverage_store.stock.InsufficientStockException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Scope;
-import org.springframework.context.annotation.ScopedProxyMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.event.InteractiveAuthenticationSuccessEvent;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.context.WebApplicationContext;
-import service.FirebaseFallbackService;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.util.WebUtils;
 
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.time.Instant;
 import java.util.*;
-import java.math.BigDecimal;
+import java.util.function.Predicate;
 
 /**
- * Session-scoped shopping cart implementation.
- * Uses a map keyed by beverage id to reliably merge/update items.
+ * Shopping cart of the current HTTP session.
+ * Lines are kept as a {@link CompactCart} (beverage id, quantity, unit price in cents) in a session attribute;
+ * OrderItems are rebuilt in bulk from the catalog cache only when a page needs them. Totals are maintained
+ * by the CompactCart on every change.
+ * <p>
+ * Every change sets the attribute again, which is what tells an external session store (shared-session
+ * profile) to write it back once the request completes. Read-only calls never create a session.
+ * After sign-in the anonymous cart is merged into the user's saved cart, and later changes are handed to the
+ * {@link CartPersistenceService}, which writes them behind.
+ * Quantities in the cart are backed by stock reservations ({@link StockReservationService}); a change that
+ * needs more stock than is left throws an {@link InsufficientStockException} and leaves the cart unchanged.
+ * Every change is also recorded as a {@link CartEvent} for the cart statistics, which never holds it up.
+ * With cart.storage.compact=false rebuilt items are kept with the cart until it changes.
  */
+@Slf4j
 @Service
-@Scope(value = WebApplicationContext.SCOPE_SESSION, proxyMode = ScopedProxyMode.TARGET_CLASS)
 @Transactional
 public class ShoppingCartServiceImpl implements ShoppingCartService {
 
-    // preserve insertion order for predictable display
-    private final Map<Long, OrderItem> itemsByBeverageId = new LinkedHashMap<>();
+    public static final String CART_ATTRIBUTE = "beverage_store.cart";
+
+    @Value("${cart.storage.compact:true}")
+    private boolean compact = true;
 
     @Autowired
-    private FirebaseFallbackService firebaseFallbackService;
+    private CatalogCache catalogCache;
 
-    private final ObjectMapper mapper = new ObjectMapper();
+    @Autowired
+    private CartPersistenceService cartPersistence;
 
-    private void persistOrderBackup(Order order) {
-        try {
-            if (firebaseFallbackService.isAvailable()) {
-                // existing logic: write to Firestore if you want
-                // firebaseFallbackService.getFirestore().ifPresent(f -> { ... });
-            } else {
-                Path out = firebaseFallbackService.getLocalRoot().resolve("orders");
-                Files.createDirectories(out);
-                String filename = "order_" + Instant.now().toEpochMilli() + ".json";
-                byte[] json = mapper.writeValueAsBytes(order);
-                Files.write(out.resolve(filename), json);
-            }
-        } catch (Exception e) {
-            // ignore fallback failure - maybe log
-        }
-    }
+    @Autowired
+    private StockReservationService stockReservations;
+
+    @Autowired
+    private BeverageRepository beverageRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OutboxService outbox;
+
+    @Autowired
+    private CartAnalyticsService cartAnalytics;
 
     @Override
-    public synchronized void addItem(OrderItem item) {
+    public void addItem(OrderItem item) {
         if (item == null || item.getBeverage() == null || item.getBeverage().getId() == null) {
             return;
         }
@@ -62,57 +94,378 @@ public class ShoppingCartServiceImpl implements ShoppingCartService {
             return;
         }
 
-        Long bevId = item.getBeverage().getId();
-        OrderItem existing = itemsByBeverageId.get(bevId);
-        if (existing != null) {
-            existing.increaseQuantityBy(qty);
-        } else {
-            // store a copy to avoid accidental external mutations
-            itemsByBeverageId.put(bevId, new OrderItem(item.getBeverage(), qty));
-        }
+        Beverage beverage = item.getBeverage();
+        long unitCents = Money.of(beverage.getPrice()).cents();
+        change(cart -> {
+            CompactCart lines = cart.getLines();
+            int target = lines.quantityOf(beverage.getId()) + qty;
+            if (!stockReservations.reserve(cart.getId(), beverage.getId(), target)) {
+                throw new InsufficientStockException(List.of(beverage.getId()));
+            }
+            lines.add(beverage.getId(), qty, unitCents);
+            cartAnalytics.record(CartEvent.Type.ADD, cart.getId(), beverage.getId(), target);
+            return true;
+        });
     }
 
     @Override
-    public synchronized void updateItem(OrderItem item) {
+    public void updateItem(OrderItem item) {
         if (item == null || item.getBeverage() == null || item.getBeverage().getId() == null) {
             return;
         }
-        Long bevId = item.getBeverage().getId();
-        if (!itemsByBeverageId.containsKey(bevId)) {
+        updateQuantities(Map.of(item.getBeverage().getId(), Math.max(0, item.getQuantity())));
+    }
+
+    @Override
+    public void updateQuantities(Map<Long, Integer> quantities) {
+        if (quantities == null || quantities.isEmpty()) {
             return;
         }
-        int qty = Math.max(0, item.getQuantity());
-        if (qty == 0) {
-            itemsByBeverageId.remove(bevId);
-        } else {
-            OrderItem existing = itemsByBeverageId.get(bevId);
-            existing.setQuantity(qty);
+        change(cart -> {
+            CompactCart lines = cart.getLines();
+            Map<Long, Integer> changes = new LinkedHashMap<>();
+            quantities.forEach((id, qty) -> {
+                if (id != null && qty != null && lines.contains(id)) {
+                    changes.put(id, Math.max(0, qty));
+                }
+            });
+            reserveAll(cart, changes);
+            changes.forEach((id, qty) -> {
+                int before = lines.quantityOf(id);
+                lines.update(id, qty);
+                if (qty == 0) {
+                    cartAnalytics.record(CartEvent.Type.REMOVE, cart.getId(), id, before);
+                } else if (qty != before) {
+                    cartAnalytics.record(CartEvent.Type.UPDATE, cart.getId(), id, qty);
+                }
+            });
+            return !changes.isEmpty();
+        });
+    }
+
+    @Override
+    public List<OrderItem> getItemsInCart() {
+        SessionCart cart = currentCart(false);
+        if (cart == null) {
+            return List.of();
+        }
+        cart.lock();
+        try {
+            if (cart.getItems() != null) {
+                return cart.getItems();
+            }
+            List<OrderItem> items = hydrate(cart.getLines());
+            if (!compact) {
+                cart.setItems(items);
+            }
+            return items;
+        } finally {
+            cart.unlock();
+        }
+    }
+
+    @Override
+    public int getLineCount() {
+        SessionCart cart = currentCart(false);
+        if (cart == null) {
+            return 0;
+        }
+        cart.lock();
+        try {
+            return cart.getLines().size();
+        } finally {
+            cart.unlock();
+        }
+    }
+
+    @Override
+    public Optional<CartLine> getLine(long beverageId) {
+        SessionCart cart = currentCart(false);
+        if (cart == null) {
+            return Optional.empty();
+        }
+        cart.lock();
+        try {
+            CompactCart lines = cart.getLines();
+            int position = lines.positionOf(beverageId);
+            if (position < 0) {
+                return Optional.empty();
+            }
+            return Optional.of(new CartLine(beverageId, lines.quantityAt(position),
+                    Money.ofCents(lines.unitCentsAt(position))));
+        } finally {
+            cart.unlock();
         }
     }
 
     @Override
-    public synchronized List<OrderItem> getItemsInCart() {
-        return Collections.unmodifiableList(new ArrayList<>(itemsByBeverageId.values()));
+    public CartTotals getTotals() {
+        SessionCart cart = currentCart(false);
+        if (cart == null) {
+            return CartTotals.EMPTY;
+        }
+        cart.lock();
+        try {
+            CompactCart lines = cart.getLines();
+            if (lines.isEmpty()) {
+                return CartTotals.EMPTY;
+            }
+            return new CartTotals(Money.ofCents(lines.totalCents()), lines.itemCount(), lines.size());
+        } finally {
+            cart.unlock();
+        }
     }
 
     @Override
+    @Deprecated
     public double getTotal() {
-        return itemsByBeverageId.values().stream()
-                .map(OrderItem::getPrice) // or the appropriate method returning BigDecimal
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .doubleValue();
+        return getTotals().total().toBigDecimal().doubleValue();
     }
 
     @Override
-    public synchronized void clearAllItems() {
-        itemsByBeverageId.clear();
+    public void clearAllItems() {
+        change(cart -> {
+            CompactCart lines = cart.getLines();
+            boolean changed = !lines.isEmpty();
+            stockReservations.release(cart.getId(), ids(lines));
+            lines.clear();
+            if (changed) {
+                cartAnalytics.record(CartEvent.Type.CLEAR, cart.getId(), 0, 0);
+            }
+            return changed;
+        });
     }
 
     @Override
-    public synchronized void removeItem(OrderItem item) {
+    public void removeItem(OrderItem item) {
         if (item == null || item.getBeverage() == null || item.getBeverage().getId() == null) {
             return;
         }
-        itemsByBeverageId.remove(item.getBeverage().getId());
+        long id = item.getBeverage().getId();
+        change(cart -> {
+            stockReservations.release(cart.getId(), List.of(id));
+            int before = cart.getLines().quantityOf(id);
+            if (!cart.getLines().remove(id)) {
+                return false;
+            }
+            cartAnalytics.record(CartEvent.Type.REMOVE, cart.getId(), id, before);
+            return true;
+        });
+    }
+
+    @Override
+    public void restoreSavedCart(String username) {
+        HttpSession session = currentRequest().getSession();
+        SessionCart cart = currentCart(session, true);
+        cart.lock();
+        try {
+            CompactCart lines = cart.getLines();
+            CompactCart merged = cartPersistence.load(username);
+            if (username.equals(cart.getOwner())) {
+                // already restored in this session, the session holds the newer lines
+                merged = lines;
+            } else if (cart.getOwner() == null) {
+                // items picked before signing in are added to the saved ones
+                merged.addAll(lines);
+            }
+            if (merged != lines) {
+                lines.clear();
+                lines.addAll(merged);
+            }
+            cart.setOwner(username);
+            cart.setItems(null);
+            cartPersistence.save(username, lines);
+            // saved lines are reserved where stock allows; the rest is checked again at checkout
+            for (int i = 0; i < lines.size(); i++) {
+                stockReservations.reserve(cart.getId(), lines.idAt(i), lines.quantityAt(i));
+            }
+        } finally {
+            cart.unlock();
+        }
+        session.setAttribute(CART_ATTRIBUTE, cart);
+        log.info("Restored cart of {} with {} lines", username, cart.getLines().size());
+    }
+
+    @Override
+    public List<CartChange> revalidate() {
+        SessionCart current = currentCart(false);
+        if (current == null) {
+            return List.of();
+        }
+        List<Long> ids;
+        current.lock();
+        try {
+            ids = ids(current.getLines());
+        } finally {
+            current.unlock();
+        }
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        // one query for all lines, straight from the database rather than the catalog cache
+        Map<Long, CatalogEntry> stored = new HashMap<>();
+        beverageRepository.findEntriesByIdIn(ids).forEach(entry -> stored.put(entry.id(), entry));
+
+        List<CartChange> changes = new ArrayList<>();
+        change(cart -> {
+            CompactCart lines = cart.getLines();
+            for (Long id : ids) {
+                int position = lines.positionOf(id);
+                if (position < 0) {
+                    continue;
+                }
+                int quantity = lines.quantityAt(position);
+                Money price = Money.ofCents(lines.unitCentsAt(position));
+                CatalogEntry entry = stored.get(id);
+                if (entry == null) {
+                    lines.remove(id);
+                    stockReservations.release(cart.getId(), List.of(id));
+                    changes.add(new CartChange(id, null, CartChange.Kind.REMOVED, price, price, quantity, 0));
+                    continue;
+                }
+                Money currentPrice = Money.of(entry.price());
+                if (!currentPrice.equals(price)) {
+                    lines.reprice(id, currentPrice.cents());
+                    changes.add(new CartChange(id, entry.name(), CartChange.Kind.REPRICED,
+                            price, currentPrice, quantity, quantity));
+                }
+                if (quantity > entry.inStock()) {
+                    int left = Math.max(0, entry.inStock());
+                    lines.update(id, left);
+                    stockReservations.reserve(cart.getId(), id, left);
+                    changes.add(new CartChange(id, entry.name(), CartChange.Kind.REDUCED,
+                            currentPrice, currentPrice, quantity, left));
+                }
+            }
+            return !changes.isEmpty();
+        });
+        if (!changes.isEmpty()) {
+            log.info("Cart revalidation changed {} lines", changes.size());
+        }
+        return changes;
+    }
+
+    @Override
+    public Order placeOrder(Order order, OrderDTO confirmation) {
+        SessionCart cart = currentCart(false);
+        if (cart == null) {
+            throw new IllegalStateException("No shopping cart in this session");
+        }
+        cart.lock();
+        try {
+            // taken from the order, not the cart lines: the cart may have changed since the items were read
+            Map<Long, Integer> quantities = new LinkedHashMap<>();
+            for (OrderItem item : order.getItems()) {
+                quantities.merge(item.getBeverage().getId(), item.getQuantity(), Integer::sum);
+            }
+            stockReservations.checkout(cart.getId(), quantities);
+            // flushed here so a duplicate checkout key fails before anything else is queued
+            Order saved = orderRepository.saveAndFlush(order);
+            confirmation.setId(saved.getId());
+            outbox.enqueue(PdfFunctionHandler.TOPIC, confirmation);
+            cartAnalytics.record(CartEvent.Type.CHECKOUT, cart.getId(), 0, quantities.size());
+            return saved;
+        } finally {
+            cart.unlock();
+        }
+    }
+
+    @EventListener
+    public void onLogin(InteractiveAuthenticationSuccessEvent event) {
+        restoreSavedCart(event.getAuthentication().getName());
+    }
+
+    /**
+     * Apply a change to the session's cart lines and store the cart again if they changed.
+     */
+    private void change(Predicate<SessionCart> change) {
+        HttpSession session = currentRequest().getSession();
+        SessionCart cart = currentCart(session, true);
+        cart.lock();
+        try {
+            if (!change.test(cart)) {
+                return;
+            }
+            cart.setItems(null);
+            if (cart.getOwner() != null) {
+                cartPersistence.save(cart.getOwner(), cart.getLines());
+            }
+        } finally {
+            cart.unlock();
+        }
+        session.setAttribute(CART_ATTRIBUTE, cart);
+    }
+
+    /**
+     * Reserve the new quantities of several lines, all or none.
+     */
+    private void reserveAll(SessionCart cart, Map<Long, Integer> quantities) {
+        Map<Long, Integer> previous = new HashMap<>();
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            long id = line.getKey();
+            int held = stockReservations.reservedBy(cart.getId(), id);
+            if (!stockReservations.reserve(cart.getId(), id, line.getValue())) {
+                previous.forEach((reservedId, quantity) -> stockReservations.reserve(cart.getId(), reservedId, quantity));
+                throw new InsufficientStockException(List.of(id));
+            }
+            previous.put(id, held);
+        }
+    }
+
+    private static List<Long> ids(CompactCart lines) {
+        List<Long> ids = new ArrayList<>(lines.size());
+        for (long id : lines.ids()) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    private SessionCart currentCart(boolean create) {
+        HttpSession session = currentRequest().getSession(create);
+        return session == null ? null : currentCart(session, create);
+    }
+
+    private static SessionCart currentCart(HttpSession session, boolean create) {
+        synchronized (WebUtils.getSessionMutex(session)) {
+            SessionCart cart = (SessionCart) session.getAttribute(CART_ATTRIBUTE);
+            if (cart == null && create) {
+                cart = new SessionCart();
+                session.setAttribute(CART_ATTRIBUTE, cart);
+            }
+            return cart;
+        }
+    }
+
+    private static HttpServletRequest currentRequest() {
+        return ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
+    }
+
+    /**
+     * One catalog lookup for all lines. Items are priced from the snapshot taken when they were added;
+     * beverages that left the catalog since are skipped.
+     */
+    private List<OrderItem> hydrate(CompactCart cart) {
+        if (cart.isEmpty()) {
+            return List.of();
+        }
+        long[] ids = cart.ids();
+        List<Long> keys = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            keys.add(id);
+        }
+        Map<Long, Beverage> beverages = catalogCache.findAllById(keys);
+
+        List<OrderItem> items = new ArrayList<>(ids.length);
+        for (int i = 0; i < cart.size(); i++) {
+            Beverage beverage = beverages.get(cart.idAt(i));
+            if (beverage == null) {
+                log.warn("Beverage {} in cart is no longer in the catalog", cart.idAt(i));
+                continue;
+            }
+            OrderItem item = new OrderItem(beverage, cart.quantityAt(i));
+            item.setPrice(Money.ofCents(cart.unitCentsAt(i)).times(cart.quantityAt(i)).toBigDecimal());
+            items.add(item);
+        }
+        return Collections.unmodifiableList(items);
     }
 }
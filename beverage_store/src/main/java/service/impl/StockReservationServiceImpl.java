@@ -0,0 +1,257 @@
+package beverage_store.service.impl;
+
+import beverage_store.model.Beverage;
+import beverage_store.service.BeverageService;
+import beverage_store.service.CatalogCache;
+import beverage_store.service.StockReservationService;
+import beverage_store.stock.InsufficientStockException;
+import beverage_store.stock.TimingWheel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory reservation table. Each (cart, beverage) reservation lives in one map; the reserved total per
+ * beverage is a plain counter guarded by one of a fixed set of lock stripes chosen by beverage id, so carts
+ * reserving different beverages don't contend and nothing touches the database until checkout.
+ * Stock comes from the catalog cache and is read before a stripe is taken, as a cache miss goes to the
+ * database; after a checkout the stock is decremented first and the reservation dropped afterwards, so the
+ * quantity is never counted as available twice. Inside a transaction the reservation is only dropped after
+ * the commit, once the cache has seen the decrement, and put back as it was if the transaction rolls back.
+ * <p>
+ * Expiry runs on a {@link TimingWheel} advanced every tick by the scheduler (stock.reservation.tick-ms);
+ * renewing a reservation schedules a new timeout and cancels the old one.
+ * Reservations are per instance: with several instances each one only sees its own carts.
+ */
+@Slf4j
+@Service
+public class StockReservationServiceImpl implements StockReservationService {
+
+    private static final int STRIPES = 64;
+
+    private record Key(String cartId, long beverageId) {
+    }
+
+    private static final class Reservation {
+        private final Key key;
+        private int quantity;
+        private TimingWheel<Reservation>.Timeout timeout;
+
+        private Reservation(Key key) {
+            this.key = key;
+        }
+    }
+
+    private final CatalogCache catalogCache;
+    private final BeverageService beverageService;
+    private final Clock clock;
+    private final long ttlMillis;
+    private final TimingWheel<Reservation> wheel;
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final ConcurrentHashMap<Key, Reservation> reservations = new ConcurrentHashMap<>();
+    /**
+     * Reserved quantity per beverage; only changed with the beverage's stripe held.
+     */
+    private final ConcurrentHashMap<Long, Integer> reserved = new ConcurrentHashMap<>();
+
+    @Autowired
+    public StockReservationServiceImpl(CatalogCache catalogCache,
+                                       BeverageService beverageService,
+                                       @Value("${stock.reservation.ttl-minutes:15}") long ttlMinutes,
+                                       @Value("${stock.reservation.tick-ms:1000}") long tickMillis) {
+        this(catalogCache, beverageService, Clock.systemUTC(), ttlMinutes * 60_000, tickMillis);
+    }
+
+    public StockReservationServiceImpl(CatalogCache catalogCache, BeverageService beverageService, Clock clock,
+                                       long ttlMillis, long tickMillis) {
+        this.catalogCache = catalogCache;
+        this.beverageService = beverageService;
+        this.clock = clock;
+        this.ttlMillis = ttlMillis;
+        // one revolution covers the TTL, so a reservation is looked at once when it's due
+        this.wheel = new TimingWheel<>(tickMillis, (int) Math.min(1 << 16, Math.max(16, ttlMillis / tickMillis)),
+                clock.millis());
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public boolean reserve(String cartId, long beverageId, int quantity) {
+        Key key = new Key(cartId, beverageId);
+        int target = Math.max(0, quantity);
+        // lowering or releasing doesn't need the stock
+        int inStock = target > 0 ? inStock(beverageId) : 0;
+        ReentrantLock stripe = stripe(beverageId);
+        stripe.lock();
+        try {
+            Reservation reservation = reservations.get(key);
+            int held = reservation == null ? 0 : reservation.quantity;
+            int delta = target - held;
+            if (delta > 0 && delta > inStock - reserved(beverageId)) {
+                return false;
+            }
+            if (delta != 0) {
+                reserved.merge(beverageId, delta, (a, b) -> a + b == 0 ? null : a + b);
+            }
+            if (reservation != null) {
+                reservation.timeout.cancel();
+            }
+            if (target == 0) {
+                reservations.remove(key);
+                return true;
+            }
+            if (reservation == null) {
+                reservation = new Reservation(key);
+                reservations.put(key, reservation);
+            }
+            reservation.quantity = target;
+            reservation.timeout = wheel.schedule(reservation, clock.millis() + ttlMillis);
+            return true;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    @Override
+    public void release(String cartId, Collection<Long> beverageIds) {
+        for (Long beverageId : beverageIds) {
+            reserve(cartId, beverageId, 0);
+        }
+    }
+
+    @Override
+    public int available(long beverageId) {
+        int inStock = inStock(beverageId);
+        ReentrantLock stripe = stripe(beverageId);
+        stripe.lock();
+        try {
+            return Math.max(0, inStock - reserved(beverageId));
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    @Override
+    public int reservedBy(String cartId, long beverageId) {
+        Reservation reservation = reservations.get(new Key(cartId, beverageId));
+        return reservation == null ? 0 : reservation.quantity;
+    }
+
+    @Override
+    public void checkout(String cartId, Map<Long, Integer> quantities) {
+        Map<Long, Integer> previous = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            previous.put(line.getKey(), reservedBy(cartId, line.getKey()));
+            if (!reserve(cartId, line.getKey(), line.getValue())) {
+                missing.add(line.getKey());
+            }
+        }
+        if (!missing.isEmpty()) {
+            // leave the cart's reservations as they were
+            previous.forEach((beverageId, quantity) -> reserve(cartId, beverageId, quantity));
+            throw new InsufficientStockException(missing);
+        }
+        try {
+            beverageService.decreaseStock(quantities);
+        } catch (InsufficientStockException e) {
+            // the stored stock is lower than the catalog cache showed
+            previous.forEach((beverageId, quantity) -> reserve(cartId, beverageId, quantity));
+            throw e;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            release(cartId, quantities.keySet());
+            log.info("Checked out {} reserved lines of cart {}", quantities.size(), cartId);
+            return;
+        }
+        // registered after decreaseStock's CatalogChangedEvent listeners, so it runs after the cache is invalidated
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                release(cartId, quantities.keySet());
+                log.info("Checked out {} reserved lines of cart {}", quantities.size(), cartId);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_ROLLED_BACK) {
+                    return;
+                }
+                // lines a concurrent checkout of the same cart released in the meantime stay released
+                previous.forEach((beverageId, quantity) -> {
+                    if (reservedBy(cartId, beverageId) == quantities.get(beverageId)) {
+                        reserve(cartId, beverageId, quantity);
+                    }
+                });
+                log.info("Checkout of cart {} rolled back, reservations restored", cartId);
+            }
+        });
+    }
+
+    /**
+     * Drop reservations whose time is up.
+     *
+     * @return number of reservations that expired
+     */
+    @Scheduled(fixedDelayString = "${stock.reservation.tick-ms:1000}")
+    public int expire() {
+        long now = clock.millis();
+        List<Reservation> due = new ArrayList<>();
+        // collected first: the wheel's lock must not be held while taking a stripe
+        wheel.advance(now, due::add);
+        int expired = 0;
+        for (Reservation reservation : due) {
+            long beverageId = reservation.key.beverageId();
+            ReentrantLock stripe = stripe(beverageId);
+            stripe.lock();
+            try {
+                // it may have been renewed or released since it was collected
+                if (reservations.get(reservation.key) == reservation && reservation.timeout.deadline() <= now) {
+                    reservations.remove(reservation.key);
+                    reserved.merge(beverageId, -reservation.quantity, (a, b) -> a + b == 0 ? null : a + b);
+                    expired++;
+                }
+            } finally {
+                stripe.unlock();
+            }
+        }
+        if (expired > 0) {
+            log.debug("{} stock reservations expired", expired);
+        }
+        return expired;
+    }
+
+    /**
+     * Must not be called with a stripe held: a cache miss loads the beverage from the database.
+     */
+    private int inStock(long beverageId) {
+        return catalogCache.findById(beverageId).map(Beverage::getInStock).orElse(0);
+    }
+
+    /**
+     * Called with the beverage's stripe held.
+     */
+    private int reserved(long beverageId) {
+        return reserved.getOrDefault(beverageId, 0);
+    }
+
+    private ReentrantLock stripe(long beverageId) {
+        long h = beverageId * 0x9E3779B97F4A7C15L;
+        return stripes[(int) (h >>> 58)];
+    }
+}
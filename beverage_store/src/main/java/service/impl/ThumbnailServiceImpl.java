@@ -0,0 +1,103 @@
+package beverage_store.service.impl;
+
+import beverage_store.images.DiskLruCache;
+import beverage_store.images.ImageOrigin;
+import beverage_store.images.ThumbnailRenderer;
+import beverage_store.images.ThumbnailRenderer.Thumbnail;
+import beverage_store.images.ThumbnailSize;
+import beverage_store.images.ThumbnailUrls;
+import beverage_store.service.ThumbnailService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Concurrent requests for a missing thumbnail share one origin fetch.
+ */
+@Slf4j
+@Service
+public class ThumbnailServiceImpl implements ThumbnailService {
+
+    private final ImageOrigin origin;
+    private final DiskLruCache diskCache;
+
+    private final ConcurrentMap<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ThumbnailServiceImpl(ImageOrigin origin, DiskLruCache diskCache) {
+        this.origin = origin;
+        this.diskCache = diskCache;
+    }
+
+    @Override
+    public Thumbnail getThumbnail(String pic, ThumbnailSize size) throws IOException {
+        String key = ThumbnailUrls.cacheKey(pic, size);
+        Optional<Path> cached = diskCache.get(key);
+        try {
+            return read(cached.isPresent() ? cached.get() : load(key, pic, size));
+        } catch (NoSuchFileException e) {
+            // evicted between lookup and read
+            return read(load(key, pic, size));
+        }
+    }
+
+    private Path load(String key, String pic, ThumbnailSize size) throws IOException {
+        CompletableFuture<Path> mine = new CompletableFuture<>();
+        CompletableFuture<Path> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            return await(running);
+        }
+        try {
+            // another request may have stored it between our cache lookup and putIfAbsent
+            Optional<Path> cached = diskCache.get(key);
+            Path file = cached.isPresent() ? cached.get() : fetchAndStore(key, pic, size);
+            mine.complete(file);
+            return file;
+        } catch (IOException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private Path fetchAndStore(String key, String pic, ThumbnailSize size) throws IOException {
+        long start = System.nanoTime();
+        byte[] original = origin.fetch(pic);
+        Thumbnail thumbnail = ThumbnailRenderer.render(original, size);
+        Path file = diskCache.put(key, thumbnail.extension(), thumbnail.data());
+        log.info("Cached {} thumbnail of {} ({} -> {} bytes, {} ms)", size.getParam(), pic, original.length,
+                thumbnail.data().length, (System.nanoTime() - start) / 1_000_000);
+        return file;
+    }
+
+    private static Path await(CompletableFuture<Path> running) throws IOException {
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for thumbnail");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private static Thumbnail read(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        return new Thumbnail(Files.readAllBytes(file), name.substring(name.lastIndexOf('.') + 1));
+    }
+}
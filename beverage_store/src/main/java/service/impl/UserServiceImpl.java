@@ -1,5 +1,6 @@
 package beverage_store.service.impl;
 
+import beverage_store.model.CheckoutCustomer;
 import beverage_store.model.User;
 import beverage_store.model.UserDTO;
 import beverage_store.repository.UserRepository;
@@ -55,6 +56,16 @@ public class UserServiceImpl implements UserService, UserDetailsService {
         return userRepository.getUserWithEntitiesByUsername(userid).orElse(null);
     }
 
+    @Override
+    public Optional<CheckoutCustomer> getCheckoutCustomer(String username) {
+        return username == null ? Optional.empty() : userRepository.findCheckoutCustomer(username);
+    }
+
+    @Override
+    public User getUserReference(String username) {
+        return userRepository.getReferenceById(username);
+    }
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         Optional<User> user = userRepository.getUserWithEntitiesByUsername(username);
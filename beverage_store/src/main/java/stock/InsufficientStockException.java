@@ -0,0 +1,25 @@
+package beverage_store.stock;
+
+import java.io.Serial;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Not enough unreserved stock for the requested quantities.
+ */
+public class InsufficientStockException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final long[] beverageIds;
+
+    public InsufficientStockException(List<Long> beverageIds) {
+        super("Not enough stock for beverages " + beverageIds);
+        this.beverageIds = beverageIds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    public List<Long> getBeverageIds() {
+        return Arrays.stream(beverageIds).boxed().toList();
+    }
+}
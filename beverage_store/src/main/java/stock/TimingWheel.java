@@ -0,0 +1,156 @@
+package beverage_store.stock;
+
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel: a ring of buckets, one per tick. A timeout goes into the bucket of its deadline tick,
+ * so scheduling and cancelling are O(1) no matter how many timeouts are pending, and advancing the wheel only
+ * looks at the buckets of the ticks that passed. Deadlines further away than one revolution simply stay in
+ * their bucket until a later pass finds them due.
+ * <p>
+ * The wheel has no thread of its own; the owner calls {@link #advance} periodically. All methods are
+ * synchronized, each holding the lock for O(1) work, or one bucket's worth in advance.
+ *
+ * @param <T> payload handed back when a timeout expires
+ */
+public final class TimingWheel<T> {
+
+    /**
+     * A scheduled timeout. Entries are nodes of their bucket's doubly-linked list.
+     */
+    public final class Timeout {
+        private final T payload;
+        private final long deadline;
+        private Timeout prev;
+        private Timeout next;
+        private int bucket = -1;
+
+        private Timeout(T payload, long deadline) {
+            this.payload = payload;
+            this.deadline = deadline;
+        }
+
+        public T payload() {
+            return payload;
+        }
+
+        public long deadline() {
+            return deadline;
+        }
+
+        /**
+         * @return false if the timeout already expired or was cancelled
+         */
+        public boolean cancel() {
+            synchronized (TimingWheel.this) {
+                if (bucket < 0) {
+                    return false;
+                }
+                unlink(this);
+                return true;
+            }
+        }
+    }
+
+    private final long tickMillis;
+    private final int mask;
+    private final Object[] heads;
+    private long lastTick;
+    private int size;
+
+    /**
+     * @param tickMillis resolution; timeouts fire up to one tick late
+     * @param buckets    wheel size, rounded up to a power of two
+     * @param nowMillis  current time of the caller's clock
+     */
+    public TimingWheel(long tickMillis, int buckets, long nowMillis) {
+        if (tickMillis < 1 || buckets < 1) {
+            throw new IllegalArgumentException("Tick and bucket count must be positive");
+        }
+        int wheelSize = Integer.highestOneBit(Math.max(1, buckets - 1)) << 1;
+        this.tickMillis = tickMillis;
+        this.mask = wheelSize - 1;
+        this.heads = new Object[wheelSize];
+        this.lastTick = nowMillis / tickMillis;
+    }
+
+    public synchronized Timeout schedule(T payload, long deadlineMillis) {
+        Timeout timeout = new Timeout(payload, deadlineMillis);
+        // the first tick starting at or after the deadline, so the timeout is due when its bucket is visited;
+        // a deadline that already passed goes into the next bucket to be visited
+        long tick = Math.max(Math.ceilDiv(deadlineMillis, tickMillis), lastTick + 1);
+        link(timeout, (int) (tick & mask));
+        return timeout;
+    }
+
+    /**
+     * Expire every timeout whose deadline is not after nowMillis, visiting the buckets of the ticks since the
+     * last call (all buckets once if a whole revolution passed). Callbacks run with the wheel's lock held and
+     * must not call back into the wheel from another thread.
+     *
+     * @return number of expired timeouts
+     */
+    public synchronized int advance(long nowMillis, Consumer<T> onExpire) {
+        long now = nowMillis / tickMillis;
+        if (now <= lastTick) {
+            return 0;
+        }
+        long from = Math.max(lastTick + 1, now - mask);
+        int expired = 0;
+        for (long tick = from; tick <= now; tick++) {
+            expired += expireBucket((int) (tick & mask), nowMillis, onExpire);
+        }
+        lastTick = now;
+        return expired;
+    }
+
+    /**
+     * Pending timeouts.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int expireBucket(int bucket, long nowMillis, Consumer<T> onExpire) {
+        int expired = 0;
+        Timeout timeout = (Timeout) heads[bucket];
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            if (timeout.deadline <= nowMillis) {
+                unlink(timeout);
+                expired++;
+                onExpire.accept(timeout.payload);
+            }
+            timeout = next;
+        }
+        return expired;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void link(Timeout timeout, int bucket) {
+        Timeout head = (Timeout) heads[bucket];
+        timeout.bucket = bucket;
+        timeout.next = head;
+        if (head != null) {
+            head.prev = timeout;
+        }
+        heads[bucket] = timeout;
+        size++;
+    }
+
+    private void unlink(Timeout timeout) {
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            heads[timeout.bucket] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.bucket = -1;
+        size--;
+    }
+}
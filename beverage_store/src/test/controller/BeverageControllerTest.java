@@ -3,9 +3,10 @@ package beverage_store.controller;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import beverage_store.model.*;
-import beverage_store.repository.BeverageRepository;
 import beverage_store.repository.BottleRepository;
 import beverage_store.repository.CrateRepository;
+import beverage_store.service.BeverageSearchService;
+import beverage_store.service.CatalogService;
 import beverage_store.service.ShoppingCartService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,6 +15,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mock.web.MockHttpSession;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
@@ -36,11 +38,14 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 public class BeverageControllerTest {
 
     @MockBean
-    private BeverageRepository beverageRepository;
+    private CatalogService catalogService;
 
     @MockBean
     private ShoppingCartService shoppingCartService;
 
+    @MockBean
+    private BeverageSearchService searchService;
+
     @MockBean
     private BottleRepository bottleRepository;
 
@@ -91,18 +96,97 @@ public class BeverageControllerTest {
 
     @Test
     public void getHome_shouldSuccess() throws Exception {
-        when(this.beverageRepository.findAll()).thenReturn(beverages);
-        when(this.shoppingCartService.getItemsInCart()).thenReturn(orderItems);
+        CatalogPage page = new CatalogPage(CatalogEntry.of(beverages), CatalogSort.ID, 20, null, null);
+        when(this.catalogService.getPage(CatalogSort.ID, FacetFilter.none(), null, null, null)).thenReturn(page);
+        when(this.shoppingCartService.getLineCount()).thenAnswer(invocation -> orderItems.size());
 
         this.mvc.perform(get("/"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("beverages"))
-                .andExpect(model().attribute("beverages", beverages))
+                .andExpect(model().attribute("beverages", page.getBeverages()))
+                .andExpect(model().attribute("page", page))
                 .andExpect(model().attribute("listofitems", orderItems.size()))
                 .andExpect(content().string(containsString(this.beverages.get(0).getName())));
 
-        verify(this.beverageRepository, times(1)).findAll();
-        verify(this.shoppingCartService, times(1)).getItemsInCart();
+        verify(this.catalogService, times(1)).getPage(CatalogSort.ID, FacetFilter.none(), null, null, null);
+        verify(this.shoppingCartService, times(1)).getLineCount();
+    }
+
+    @Test
+    public void getHome_shouldPassCursorAndSort() throws Exception {
+        String cursor = new CatalogCursor("Schlenkerla", 1L).encode();
+        CatalogPage page = new CatalogPage(CatalogEntry.of(beverages), CatalogSort.NAME, 20, null, cursor);
+        when(this.catalogService.getPage(CatalogSort.NAME, FacetFilter.none(), cursor, null, null)).thenReturn(page);
+        when(this.shoppingCartService.getLineCount()).thenAnswer(invocation -> orderItems.size());
+
+        this.mvc.perform(get("/beverages").param("sort", "name").param("after", cursor))
+                .andExpect(status().isOk())
+                .andExpect(view().name("beverages"))
+                .andExpect(content().string(containsString("Previous")));
+
+        verify(this.catalogService, times(1)).getPage(CatalogSort.NAME, FacetFilter.none(), cursor, null, null);
+    }
+
+    @Test
+    public void getHome_shouldPassFacetFilter() throws Exception {
+        FacetFilter filter = FacetFilter.fromParams(Map.of("type", List.of("crate"), "alcoholic", List.of("yes")));
+        CatalogPage page = new CatalogPage(List.of(CatalogEntry.of(exampleCrate)), CatalogSort.ID, 20, null, null);
+        when(this.catalogService.getPage(CatalogSort.ID, filter, null, null, null)).thenReturn(page);
+        when(this.shoppingCartService.getLineCount()).thenAnswer(invocation -> orderItems.size());
+
+        this.mvc.perform(get("/beverages").param("type", "crate").param("alcoholic", "yes"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("filter", filter))
+                .andExpect(model().attributeExists("facets"))
+                .andExpect(content().string(containsString(this.exampleCrate.getName())));
+    }
+
+    @Test
+    public void getHome_shouldAnswerNotModifiedForCurrentEtag() throws Exception {
+        CatalogPage page = new CatalogPage(CatalogEntry.of(beverages), CatalogSort.ID, 20, null, null);
+        when(this.catalogService.getPage(CatalogSort.ID, FacetFilter.none(), null, null, null)).thenReturn(page);
+        when(this.shoppingCartService.getLineCount()).thenAnswer(invocation -> orderItems.size());
+        MockHttpSession session = new MockHttpSession();
+
+        String etag = this.mvc.perform(get("/beverages").session(session))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "private, no-cache"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotNull(etag);
+
+        this.mvc.perform(get("/beverages").session(session).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(this.catalogService, times(1)).getPage(CatalogSort.ID, FacetFilter.none(), null, null, null);
+
+        // a new cart item changes the page, so the old ETag no longer matches
+        orderItems.add(new OrderItem());
+        this.mvc.perform(get("/beverages").session(session).header("If-None-Match", etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void getSearch_shouldRenderMatches() throws Exception {
+        when(this.searchService.search("schlenk", 50)).thenReturn(beverages);
+        when(this.shoppingCartService.getLineCount()).thenAnswer(invocation -> orderItems.size());
+
+        this.mvc.perform(get("/beverages/search").param("q", "schlenk"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("beverages"))
+                .andExpect(model().attribute("beverages", CatalogEntry.of(beverages)))
+                .andExpect(model().attribute("query", "schlenk"))
+                .andExpect(content().string(containsString(this.beverages.get(1).getName())));
+    }
+
+    @Test
+    public void getAutocomplete_shouldReturnJson() throws Exception {
+        when(this.searchService.autocomplete("schl", 10))
+                .thenReturn(List.of(new SearchSuggestion(1L, "Schlenkerla")));
+
+        this.mvc.perform(get("/beverages/autocomplete").param("q", "schl"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].name").value("Schlenkerla"));
     }
 
     @Test
@@ -0,0 +1,127 @@
+package beverage_store.controller;
+
+import beverage_store.model.Beverage;
+import beverage_store.model.Bottle;
+import beverage_store.model.CartLine;
+import beverage_store.model.CartTotals;
+import beverage_store.model.Money;
+import beverage_store.model.OrderItem;
+import beverage_store.service.CatalogCache;
+import beverage_store.service.ShoppingCartService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+public class CartApiControllerTest {
+
+    @MockBean
+    private ShoppingCartService shoppingCartService;
+
+    @MockBean
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private MockMvc mvc;
+
+    private Bottle schlenkerla;
+
+    @BeforeEach
+    public void initCommonUsedData() {
+        schlenkerla = new Bottle();
+        schlenkerla.setId(1L);
+        schlenkerla.setName("Schlenkerla");
+        schlenkerla.setPrice(BigDecimal.valueOf(0.89));
+        schlenkerla.setInStock(438);
+
+        when(catalogCache.findById(1L)).thenReturn(Optional.of(schlenkerla));
+        when(catalogCache.findAllById(anyCollection())).thenReturn(Map.<Long, Beverage>of(1L, schlenkerla));
+        when(shoppingCartService.getTotals()).thenReturn(new CartTotals(Money.ofCents(3 * 89), 3, 1));
+        when(shoppingCartService.getLine(1L)).thenReturn(Optional.of(new CartLine(1L, 3, Money.ofCents(89))));
+    }
+
+    @Test
+    @WithMockUser(username = "Max", roles = "CUSTOMER")
+    public void postItem_shouldAddAndAnswerSummary() throws Exception {
+        this.mvc.perform(post("/api/cart/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"beverageId\":1,\"quantity\":3}")
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lineCount").value(1))
+                .andExpect(jsonPath("$.itemCount").value(3))
+                .andExpect(jsonPath("$.total").value(2.67))
+                .andExpect(jsonPath("$.line.quantity").value(3))
+                .andExpect(jsonPath("$.line.total").value(2.67));
+
+        ArgumentCaptor<OrderItem> captor = ArgumentCaptor.forClass(OrderItem.class);
+        verify(shoppingCartService).addItem(captor.capture());
+        assertEquals(3, captor.getValue().getQuantity());
+        verify(shoppingCartService, never()).getItemsInCart();
+    }
+
+    @Test
+    @WithMockUser(username = "Max", roles = "CUSTOMER")
+    public void postItem_shouldAnswerNotFoundForUnknownBeverage() throws Exception {
+        this.mvc.perform(post("/api/cart/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"beverageId\":99,\"quantity\":1}")
+                        .with(csrf()))
+                .andExpect(status().isNotFound());
+
+        this.mvc.perform(post("/api/cart/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"beverageId\":1,\"quantity\":0}")
+                        .with(csrf()))
+                .andExpect(status().isBadRequest());
+
+        verify(shoppingCartService, never()).addItem(any());
+    }
+
+    @Test
+    @WithMockUser(username = "Max", roles = "CUSTOMER")
+    public void putAndDeleteItem_shouldChangeQuantities() throws Exception {
+        this.mvc.perform(put("/api/cart/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"beverageId\":1,\"quantity\":3}")
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.line.beverageId").value(1));
+        verify(shoppingCartService).updateQuantities(Map.of(1L, 3));
+
+        when(shoppingCartService.getTotals()).thenReturn(CartTotals.EMPTY);
+        this.mvc.perform(delete("/api/cart/items/1").with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lineCount").value(0))
+                .andExpect(jsonPath("$.line").doesNotExist());
+        verify(shoppingCartService).updateQuantities(Map.of(1L, 0));
+    }
+
+    @Test
+    public void getSummary_shouldFailWhenNotAuthenticated() throws Exception {
+        this.mvc.perform(get("/api/cart"))
+                .andExpect(status().is3xxRedirection());
+    }
+}
@@ -0,0 +1,80 @@
+package beverage_store.controller;
+
+import beverage_store.service.CatalogCache;
+import beverage_store.service.CatalogExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+public class CatalogApiControllerTest {
+
+    @MockBean
+    private CatalogExportService exportService;
+
+    @MockBean
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private MockMvc mvc;
+
+    private final Instant lastModified = Instant.parse("2024-03-01T10:15:30Z");
+
+    @BeforeEach
+    public void initCommonUsedData() throws Exception {
+        when(catalogCache.getLastModified()).thenReturn(lastModified);
+        when(exportService.writeJson(any())).thenAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(0);
+            out.write("[{\"id\":1,\"type\":\"bottle\"}]".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+    }
+
+    @Test
+    public void getBeverages_shouldStreamJsonAnonymously() throws Exception {
+        MvcResult result = this.mvc.perform(get("/api/beverages"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        this.mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().dateValue(HttpHeaders.LAST_MODIFIED, lastModified.toEpochMilli()))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].type").value("bottle"));
+    }
+
+    @Test
+    public void getBeverages_shouldAnswerNotModifiedSinceLastChange() throws Exception {
+        this.mvc.perform(get("/api/beverages")
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, "Fri, 01 Mar 2024 10:15:30 GMT"))
+                .andExpect(status().isNotModified());
+
+        verify(exportService, never()).writeJson(any());
+    }
+
+    @Test
+    public void getBeverages_shouldStreamAgainAfterChange() throws Exception {
+        this.mvc.perform(get("/api/beverages")
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, "Fri, 01 Mar 2024 10:15:29 GMT"))
+                .andExpect(request().asyncStarted());
+    }
+}
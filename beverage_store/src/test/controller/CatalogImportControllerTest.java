@@ -0,0 +1,62 @@
+package beverage_store.controller;
+
+import beverage_store.model.ImportFormat;
+import beverage_store.model.ImportReport;
+import beverage_store.service.CatalogImportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+public class CatalogImportControllerTest {
+
+    @MockBean
+    private CatalogImportService catalogImportService;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    public void postImport_shouldRenderReport() throws Exception {
+        ImportReport report = new ImportReport();
+        report.setFormat(ImportFormat.JSON);
+        report.setRowsRead(2);
+        report.setBottlesInserted(1);
+        report.reject(2, "name: Name is required");
+        when(catalogImportService.importCatalog(any(), eq(ImportFormat.JSON))).thenReturn(report);
+
+        MockMultipartFile file = new MockMultipartFile("file", "catalog.json", "application/json", "[]".getBytes());
+        this.mvc.perform(multipart("/admin/import").file(file).with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(view().name("importCatalog"))
+                .andExpect(model().attribute("report", report))
+                .andExpect(content().string(containsString("name: Name is required")));
+    }
+
+    @Test
+    @WithMockUser(roles = "CUSTOMER")
+    public void postImport_shouldFailOnWrongRole() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "catalog.csv", "text/csv", "type,name".getBytes());
+        this.mvc.perform(multipart("/admin/import").file(file).with(csrf()))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(catalogImportService);
+    }
+}
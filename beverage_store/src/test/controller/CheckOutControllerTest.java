@@ -10,10 +10,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
@@ -163,28 +159,69 @@ public class CheckOutControllerTest {
     public void postCompletePurchase_shouldSuccess() throws Exception {
         // prepare order that controller will create
         when(this.shoppingCartService.getItemsInCart()).thenReturn(this.sampleItems);
-        // capture the saved order and return it with id
-        when(this.orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+        // the order is saved together with the stock decrements and the PDF request; return it with id
+        when(this.shoppingCartService.placeOrder(any(Order.class), any(OrderDTO.class))).thenAnswer(invocation -> {
             Order o = invocation.getArgument(0);
             o.setId(42L);
             return o;
         });
-        when(this.restTemplate.exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class), eq(String.class)))
-                .thenReturn(new ResponseEntity<>("Success", HttpStatus.OK));
-
         this.mvc.perform(post("/shoppingcart/checkout").with(csrf()))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/shoppingcart/checkout/42"));
 
         verify(this.shoppingCartService, times(1)).getItemsInCart();
-        verify(this.orderRepository, times(1)).save(any(Order.class));
-        // verify beverage quantity updates for each item
-        for (OrderItem item : this.sampleItems) {
-            verify(this.beverageService, times(1)).updateBeverageQuantity(item.getBeverage().getId(),
-                    item.getBeverage().getInStock() - item.getQuantity());
-        }
+        ArgumentCaptor<OrderDTO> confirmation = ArgumentCaptor.forClass(OrderDTO.class);
+        verify(this.shoppingCartService, times(1)).placeOrder(any(Order.class), confirmation.capture());
+        assertEquals(this.sampleItems.size(), confirmation.getValue().getListOfItems().size());
         verify(this.shoppingCartService, times(1)).clearAllItems();
-        verify(this.restTemplate, atLeastOnce()).exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class), eq(String.class));
+        // the PDF function is called by the outbox dispatcher, not within the checkout request
+        verifyNoInteractions(this.restTemplate);
+    }
+
+    @Test
+    @WithMockUser(username = "Max", roles = "CUSTOMER")
+    public void postCompletePurchase_shouldGoBackToCartWhenRevalidationChangedIt() throws Exception {
+        CartChange change = new CartChange(1L, "Schlenkerla", CartChange.Kind.REPRICED,
+                Money.ofCents(89), Money.ofCents(99), 145, 145);
+        when(this.shoppingCartService.revalidate()).thenReturn(List.of(change));
+
+        this.mvc.perform(post("/shoppingcart/checkout").with(csrf()))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/shoppingcart"))
+                .andExpect(flash().attribute("changes", List.of(change)));
+
+        verify(this.shoppingCartService, never()).placeOrder(any(Order.class), any(OrderDTO.class));
+    }
+
+    @Test
+    @WithMockUser(username = "Max", roles = "CUSTOMER")
+    public void postCompletePurchase_shouldShowThePlacedOrderForARepeatedKey() throws Exception {
+        when(this.orderRepository.findIdByIdempotencyKey("3f2b8c1e-key", "Max")).thenReturn(Optional.of(42L));
+
+        this.mvc.perform(post("/shoppingcart/checkout").param("idempotencyKey", "3f2b8c1e-key").with(csrf()))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/shoppingcart/checkout/42"));
+
+        verify(this.orderRepository, times(1)).findIdByIdempotencyKey("3f2b8c1e-key", "Max");
+        verify(this.shoppingCartService, never()).revalidate();
+        verify(this.shoppingCartService, never()).placeOrder(any(Order.class), any(OrderDTO.class));
+    }
+
+    @Test
+    @WithMockUser(username = "Max", roles = "CUSTOMER")
+    public void postCompletePurchase_shouldShowTheOrderWhenASubmitWithTheSameKeyEmptiedTheCart() throws Exception {
+        // not placed yet at the first lookup, committed by the time the cart turns out empty
+        when(this.orderRepository.findIdByIdempotencyKey("3f2b8c1e-key", "Max"))
+                .thenReturn(Optional.empty(), Optional.of(42L));
+        when(this.shoppingCartService.revalidate()).thenReturn(List.of());
+        when(this.shoppingCartService.getItemsInCart()).thenReturn(List.of());
+
+        this.mvc.perform(post("/shoppingcart/checkout").param("idempotencyKey", "3f2b8c1e-key").with(csrf()))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/shoppingcart/checkout/42"));
+
+        verify(this.orderRepository, times(2)).findIdByIdempotencyKey("3f2b8c1e-key", "Max");
+        verify(this.shoppingCartService, never()).placeOrder(any(Order.class), any(OrderDTO.class));
     }
 
     @Test
@@ -0,0 +1,91 @@
+package beverage_store.controller;
+
+import beverage_store.images.ThumbnailRenderer.Thumbnail;
+import beverage_store.images.ThumbnailSize;
+import beverage_store.images.ThumbnailUrls;
+import beverage_store.model.Bottle;
+import beverage_store.service.CatalogCache;
+import beverage_store.service.ThumbnailService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ImageControllerTest {
+
+    private static final String PIC = "https://www.getraenkewelt-weiser.de/images/product/01/85/40/18546-0-p.jpg";
+
+    @MockBean
+    private CatalogCache catalogCache;
+
+    @MockBean
+    private ThumbnailService thumbnailService;
+
+    @Autowired
+    private ThumbnailUrls thumbnails;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @BeforeEach
+    public void initCommonUsedData() {
+        Bottle schlenkerla = new Bottle();
+        schlenkerla.setId(1L);
+        schlenkerla.setName("Schlenkerla");
+        schlenkerla.setPic(PIC);
+        when(catalogCache.findById(1L)).thenReturn(Optional.of(schlenkerla));
+    }
+
+    @Test
+    public void getThumbnail_shouldServeImmutableImage() throws Exception {
+        when(thumbnailService.getThumbnail(PIC, ThumbnailSize.CATALOG))
+                .thenReturn(new Thumbnail(new byte[]{1, 2, 3}, "jpg"));
+
+        this.mvc.perform(get(thumbnails.url(1L, PIC, "catalog")))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("image/jpeg"))
+                .andExpect(content().bytes(new byte[]{1, 2, 3}))
+                .andExpect(header().string("Cache-Control", containsString("immutable")));
+    }
+
+    @Test
+    public void getThumbnail_shouldRedirectStaleLinks() throws Exception {
+        this.mvc.perform(get("/images/beverages/1/catalog").param("v", "outdated"))
+                .andExpect(status().isFound())
+                .andExpect(redirectedUrl("http://localhost" + thumbnails.url(1L, PIC, "catalog")));
+
+        verifyNoInteractions(thumbnailService);
+    }
+
+    @Test
+    public void getThumbnail_shouldFallBackToOriginalWhenOriginFails() throws Exception {
+        when(thumbnailService.getThumbnail(PIC, ThumbnailSize.ORDER)).thenThrow(new IOException("timeout"));
+
+        this.mvc.perform(get(thumbnails.url(1L, PIC, "order")))
+                .andExpect(status().isFound())
+                .andExpect(redirectedUrl(PIC));
+    }
+
+    @Test
+    public void getThumbnail_shouldAnswerNotFound() throws Exception {
+        this.mvc.perform(get("/images/beverages/2/catalog"))
+                .andExpect(status().isNotFound());
+        this.mvc.perform(get("/images/beverages/1/huge"))
+                .andExpect(status().isNotFound());
+    }
+}
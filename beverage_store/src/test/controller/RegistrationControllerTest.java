@@ -14,8 +14,13 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.event.InteractiveAuthenticationSuccessEvent;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
@@ -24,6 +29,7 @@ import java.time.LocalDate;
 import java.util.*;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -33,6 +39,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @ActiveProfiles("test")
 @SpringBootTest//(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @AutoConfigureMockMvc
+@RecordApplicationEvents
 public class RegistrationControllerTest {
 
     @MockBean
@@ -47,6 +54,9 @@ public class RegistrationControllerTest {
     @Autowired
     private MockMvc mvc;
 
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
     private User sampleUser;
     private UserDTO userDto;
     private UserDTO blankUser;
@@ -97,6 +107,25 @@ public class RegistrationControllerTest {
         verify(this.userService, times(1)).registerUser(this.userDto.toUser());
     }
 
+    @Test
+    public void postCreateUser_shouldPublishTheLoginOfTheNewUser() throws Exception {
+        when(this.userRepository.count()).thenReturn(1L);
+        when(this.userService.registerUser(this.userDto.toUser())).thenReturn(this.sampleUser);
+        when(this.authenticationManager.authenticate(any())).thenReturn(new UsernamePasswordAuthenticationToken(
+                "Max", null, AuthorityUtils.createAuthorityList("ROLE_CUSTOMER")));
+
+        this.mvc.perform(post("/register")
+                .params(convert(this.userDto))
+                .with(csrf()))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/beverages"));
+
+        // the shopping cart listens to it to save the cart for the new user
+        assertEquals(List.of("Max"), this.applicationEvents.stream(InteractiveAuthenticationSuccessEvent.class)
+                .map(event -> event.getAuthentication().getName())
+                .toList());
+    }
+
     @Test
     public void postCreateUser_shouldFailOnInvalidUser() throws Exception {
         this.userDto.setBirthday(LocalDate.of(1896, 8, 2));
@@ -0,0 +1,154 @@
+package beverage_store.controller;
+
+import beverage_store.model.Address;
+import beverage_store.model.Beverage;
+import beverage_store.model.Bottle;
+import beverage_store.model.User;
+import beverage_store.repository.BottleRepository;
+import beverage_store.service.CatalogCache;
+import beverage_store.service.UserService;
+import beverage_store.service.impl.ShoppingCartServiceImpl;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ActiveProfiles({"test", "shared-session"})
+@SpringBootTest
+@AutoConfigureMockMvc
+public class SharedSessionShoppingCartTest {
+
+    @MockBean
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BottleRepository bottleRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @BeforeEach
+    public void initCommonUsedData() {
+        // attributes go with their session
+        jdbcTemplate.update("delete from SPRING_SESSION");
+
+        Bottle schlenkerla = new Bottle();
+        schlenkerla.setId(1L);
+        schlenkerla.setName("Schlenkerla");
+        schlenkerla.setPic("https://www.getraenkewelt-weiser.de/images/product/01/85/40/18546-0-p.jpg");
+        schlenkerla.setVolume(0.5);
+        schlenkerla.setVolumePercent(5.1);
+        schlenkerla.setPrice(BigDecimal.valueOf(0.89));
+        schlenkerla.setSupplier("Rauchbierbrauerei Schlenkerla");
+        schlenkerla.setInStock(438);
+
+        when(catalogCache.findById(1L)).thenReturn(Optional.of(schlenkerla));
+        when(catalogCache.findAllById(anyCollection())).thenReturn(Map.<Long, Beverage>of(1L, schlenkerla));
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    public void addItem_shouldStoreCompactCartInSessionTable() throws Exception {
+        Cookie session = this.mvc.perform(post("/shoppingcart/add")
+                        .param("beverageId", "1")
+                        .param("quantity", "3")
+                        .with(csrf()))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(cookie().exists("SESSION"))
+                .andReturn().getResponse().getCookie("SESSION");
+
+        List<byte[]> stored = jdbcTemplate.queryForList(
+                "select ATTRIBUTE_BYTES from SPRING_SESSION_ATTRIBUTES where ATTRIBUTE_NAME = ?",
+                byte[].class, ShoppingCartServiceImpl.CART_ATTRIBUTE);
+        assertEquals(1, stored.size());
+        // class descriptors plus a few bytes for the line, no Beverage graph
+        assertTrue(stored.get(0).length < 400, "cart attribute takes " + stored.get(0).length + " bytes");
+
+        // a fresh read from the table, as another instance would do
+        this.mvc.perform(get("/shoppingcart").cookie(session))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Schlenkerla")));
+    }
+
+    @Test
+    @WithMockUser(username = "SharedSessionUser", roles = "CUSTOMER")
+    public void checkout_shouldKeepRevalidationChangesInSessionTableForTheRedirect() throws Exception {
+        User user = new User();
+        user.setUsername("SharedSessionUser");
+        user.setPassword("123456");
+        user.setRole("CUSTOMER");
+        user.setEmail("shared@example.org");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        user.setBillingaddresses(Collections.singleton(new Address(null, "Kapuzinerstraße", "5", "96047")));
+        user.setDeliveryaddresses(Collections.singleton(new Address(null, "Dominikanerstraße", "6", "96049")));
+        userService.registerUser(user);
+
+        // stored price is higher than the one the (mocked) catalog cache still shows
+        Bottle stored = new Bottle();
+        stored.setName("Schlenkerla Maerzen");
+        stored.setPic("https://www.getraenkewelt-weiser.de/images/product/01/85/40/18546-0-p.jpg");
+        stored.setVolume(0.5);
+        stored.setVolumePercent(5.1);
+        stored.setPrice(BigDecimal.valueOf(0.99));
+        stored.setSupplier("Rauchbierbrauerei Schlenkerla");
+        stored.setInStock(438);
+        stored = bottleRepository.save(stored);
+
+        Bottle cached = new Bottle();
+        cached.setId(stored.getId());
+        cached.setName(stored.getName());
+        cached.setPic(stored.getPic());
+        cached.setVolume(0.5);
+        cached.setVolumePercent(5.1);
+        cached.setPrice(BigDecimal.valueOf(0.89));
+        cached.setSupplier(stored.getSupplier());
+        cached.setInStock(438);
+        when(catalogCache.findById(stored.getId())).thenReturn(Optional.of(cached));
+        when(catalogCache.findAllById(anyCollection())).thenReturn(Map.<Long, Beverage>of(stored.getId(), cached));
+
+        Cookie session = this.mvc.perform(post("/shoppingcart/add")
+                        .param("beverageId", String.valueOf(stored.getId()))
+                        .param("quantity", "2")
+                        .with(csrf()))
+                .andExpect(status().is3xxRedirection())
+                .andReturn().getResponse().getCookie("SESSION");
+
+        // the flash attribute with the changes is written to the session table with the rest of the session
+        this.mvc.perform(post("/shoppingcart/checkout").cookie(session).with(csrf()))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/shoppingcart"));
+
+        this.mvc.perform(get("/shoppingcart").cookie(session))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("the price changed")));
+    }
+}
@@ -4,7 +4,7 @@ package beverage_store.controller;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import beverage_store.model.*;
-import beverage_store.repository.BeverageRepository;
+import beverage_store.service.CatalogCache;
 import beverage_store.repository.OrderRepository;
 import beverage_store.repository.UserRepository;
 import beverage_store.service.ShoppingCartService;
@@ -27,6 +27,8 @@ import java.util.stream.Collectors;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -42,7 +44,7 @@ public class ShoppingCartControllerTest {
     private ShoppingCartService shoppingCartService;
 
     @MockBean
-    private BeverageRepository beverageRepository;
+    private CatalogCache catalogCache;
 
     @Autowired
     private MockMvc mvc;
@@ -84,19 +86,23 @@ public class ShoppingCartControllerTest {
     @Test
     @WithMockUser(username = "Max", roles = "CUSTOMER")
     public void getShoppingCart_shouldSuccess() throws Exception {
+        Money total = this.sampleItems.stream().map(item -> Money.of(item.getPrice())).reduce(Money.ZERO, Money::plus);
+        CartTotals totals = new CartTotals(total, 151, 2);
         when(this.shoppingCartService.getItemsInCart()).thenReturn(this.sampleItems);
-        when(this.shoppingCartService.getTotal()).thenReturn(this.sampleItems.stream().mapToDouble(OrderItem::getPrice).sum());
+        when(this.shoppingCartService.getTotals()).thenReturn(totals);
 
         this.mvc.perform(get("/shoppingcart"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("reviewCart"))
                 .andExpect(model().attributeExists("update"))
                 .andExpect(model().attribute("items", this.sampleItems))
-                .andExpect(model().attribute("total", this.sampleItems.stream().mapToDouble(OrderItem::getPrice).sum()))
-                .andExpect(content().string(containsString(String.valueOf(this.sampleItems.get(0).getBeverage().getName()))));
+                .andExpect(model().attribute("totals", totals))
+                .andExpect(model().attribute("total", total.toBigDecimal()))
+                .andExpect(content().string(containsString(String.valueOf(this.sampleItems.get(0).getBeverage().getName()))))
+                .andExpect(content().string(containsString("151 items")));
 
         verify(this.shoppingCartService, times(1)).getItemsInCart();
-        verify(this.shoppingCartService, times(1)).getTotal();
+        verify(this.shoppingCartService, times(1)).getTotals();
     }
 
     @Test
@@ -109,7 +115,7 @@ public class ShoppingCartControllerTest {
     @Test
     @WithMockUser(username = "Max", roles = "CUSTOMER")
     public void getAddItem_shouldSuccess() throws Exception {
-        when(this.beverageRepository.findById(this.sampleItem.getBeverageId())).thenReturn(Optional.ofNullable(this.sampleBeverage));
+        when(this.catalogCache.findById(this.sampleItem.getBeverageId())).thenReturn(Optional.ofNullable(this.sampleBeverage));
 
         this.mvc.perform(post("/shoppingcart/add")
                     .params(convert(this.sampleItem))
@@ -126,7 +132,7 @@ public class ShoppingCartControllerTest {
         assertNotNull(captured.getBeverage());
         assertEquals(this.sampleBeverage.getId(), captured.getBeverage().getId());
 
-        verify(this.beverageRepository, times(1)).findById(this.sampleItem.getBeverageId());
+        verify(this.catalogCache, times(1)).findById(this.sampleItem.getBeverageId());
     }
 
     @Test
@@ -142,7 +148,7 @@ public class ShoppingCartControllerTest {
     @Test
     @WithMockUser(username = "Max", roles = "CUSTOMER")
     public void getUpdateItem_shouldSuccess() throws Exception {
-        when(this.beverageRepository.findById(this.sampleItem.getBeverageId())).thenReturn(Optional.ofNullable(this.sampleBeverage));
+        when(this.catalogCache.findById(this.sampleItem.getBeverageId())).thenReturn(Optional.ofNullable(this.sampleBeverage));
         when(this.shoppingCartService.getItemsInCart()).thenReturn(this.sampleItems);
 
         this.mvc.perform(post("/shoppingcart/update")
@@ -155,7 +161,7 @@ public class ShoppingCartControllerTest {
                 .andExpect(content().string(containsString(String.valueOf(this.sampleItems.get(0).getBeverage().getName()))));
 
         ArgumentCaptor<OrderItem> captor = ArgumentCaptor.forClass(OrderItem.class);
-        verify(this.beverageRepository, times(1)).findById(this.sampleItem.getBeverageId());
+        verify(this.catalogCache, times(1)).findById(this.sampleItem.getBeverageId());
         verify(this.shoppingCartService, times(1)).updateItem(captor.capture());
         OrderItem captured = captor.getValue();
         assertNotNull(captured);
@@ -181,7 +187,7 @@ public class ShoppingCartControllerTest {
     public void getDeleteItem_shouldSuccess() throws Exception {
         Long itemId = 1L;
 
-        when(this.beverageRepository.findById(itemId)).thenReturn(Optional.ofNullable(this.sampleBeverage));
+        when(this.catalogCache.findById(itemId)).thenReturn(Optional.ofNullable(this.sampleBeverage));
         when(this.shoppingCartService.getTotal()).thenReturn(this.sampleItems.stream().mapToDouble(OrderItem::getPrice).sum());
         when(this.shoppingCartService.getItemsInCart()).thenReturn(this.sampleItems);
 
@@ -213,6 +219,55 @@ public class ShoppingCartControllerTest {
                 .andExpect(redirectedUrl("http://localhost/login"));
     }
 
+    @Test
+    @WithMockUser(username = "Max", roles = "CUSTOMER")
+    public void postUpdateAll_shouldApplyAllLinesWithOneLookup() throws Exception {
+        Beverage bottle = this.sampleItems.get(0).getBeverage();
+        bottle.setId(2L);
+        when(this.catalogCache.findAllById(anyCollection())).thenReturn(Map.of(1L, this.sampleBeverage, 2L, bottle));
+
+        this.mvc.perform(post("/shoppingcart/update-all")
+                        .param("lines[0].beverageId", "1")
+                        .param("lines[0].quantity", "3")
+                        .param("lines[1].beverageId", "2")
+                        .param("lines[1].quantity", "0")
+                        .with(csrf())
+                )
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/shoppingcart"))
+                .andExpect(flash().attribute("message", "Cart updated"));
+
+        verify(this.catalogCache, times(1)).findAllById(Set.of(1L, 2L));
+        verify(this.catalogCache, never()).findById(any());
+        verify(this.shoppingCartService, times(1)).updateQuantities(Map.of(1L, 3, 2L, 0));
+    }
+
+    @Test
+    @WithMockUser(username = "Max", roles = "CUSTOMER")
+    public void postUpdateAll_shouldChangeNothingWhenOneLineIsInvalid() throws Exception {
+        when(this.catalogCache.findAllById(anyCollection())).thenReturn(Map.of(1L, this.sampleBeverage));
+
+        this.mvc.perform(post("/shoppingcart/update-all")
+                        .param("lines[0].beverageId", "1")
+                        .param("lines[0].quantity", "3")
+                        .param("lines[1].beverageId", "99")
+                        .param("lines[1].quantity", "1")
+                        .with(csrf())
+                )
+                .andExpect(status().is3xxRedirection())
+                .andExpect(flash().attribute("error", "Beverage not found"));
+
+        this.mvc.perform(post("/shoppingcart/update-all")
+                        .param("lines[0].beverageId", "1")
+                        .param("lines[0].quantity", "-1")
+                        .with(csrf())
+                )
+                .andExpect(status().is3xxRedirection())
+                .andExpect(flash().attribute("error", "Invalid update data"));
+
+        verify(this.shoppingCartService, never()).updateQuantities(any());
+    }
+
 
     private static MultiValueMap<String, String> convert(Object obj) {
         MultiValueMap<String, String> parameters = new LinkedMultiValueMap<>();
@@ -0,0 +1,136 @@
+package beverage_store.service;
+
+import beverage_store.event.CatalogChangedEvent;
+import beverage_store.model.Beverage;
+import beverage_store.model.Bottle;
+import beverage_store.model.Crate;
+import beverage_store.model.SearchSuggestion;
+import beverage_store.repository.BottleRepository;
+import beverage_store.repository.CrateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+public class BeverageSearchServiceTest {
+
+    @MockBean
+    private BottleRepository bottleRepository;
+
+    @MockBean
+    private CrateRepository crateRepository;
+
+    @Autowired
+    private BeverageSearchService searchService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private Bottle schlenkerla;
+    private Bottle limo;
+    private Crate crateSchlenkerla;
+
+    @BeforeEach
+    public void initCommonUsedData() {
+        schlenkerla = createBottle(1L, "Schlenkerla", "Rauchbierbrauerei Schlenkerla");
+        limo = createBottle(2L, "Garten Limonade", "Bad Brambacher");
+
+        crateSchlenkerla = new Crate();
+        crateSchlenkerla.setId(3L);
+        crateSchlenkerla.setName("20 Crate Schlenkerla");
+        crateSchlenkerla.setNoOfBottles(20);
+        crateSchlenkerla.setPrice(BigDecimal.valueOf(18.39));
+        crateSchlenkerla.setInStock(13);
+        crateSchlenkerla.setBottle(schlenkerla);
+
+        when(bottleRepository.findAll()).thenReturn(List.of(schlenkerla, limo));
+        when(crateRepository.findAll()).thenReturn(List.of(crateSchlenkerla));
+        searchService.rebuild();
+    }
+
+    private Bottle createBottle(long id, String name, String supplier) {
+        Bottle b = new Bottle();
+        b.setId(id);
+        b.setName(name);
+        b.setVolume(0.5);
+        b.setVolumePercent(5.1);
+        b.setPrice(BigDecimal.valueOf(0.89));
+        b.setSupplier(supplier);
+        b.setInStock(10);
+        return b;
+    }
+
+    private static List<Long> ids(List<Beverage> beverages) {
+        return beverages.stream().map(Beverage::getId).toList();
+    }
+
+    @Test
+    public void search_ShouldMatchNameAndSupplier() {
+        assertEquals(List.of(3L, 1L), ids(searchService.search("schlenkerla", 10)));
+        assertEquals(List.of(2L), ids(searchService.search("brambacher", 10)));
+    }
+
+    @Test
+    public void search_ShouldTreatLastWordAsPrefix() {
+        assertEquals(List.of(2L), ids(searchService.search("garten lim", 10)));
+        assertEquals(List.of(), ids(searchService.search("lim garten", 10)));
+    }
+
+    @Test
+    public void search_ShouldIgnoreCaseAndDiacritics() {
+        assertEquals(List.of(2L), ids(searchService.search("GÄRTEN", 10)));
+    }
+
+    @Test
+    public void search_ShouldFindCrateBySupplierOfItsBottle() {
+        assertEquals(List.of(3L, 1L), ids(searchService.search("rauchbier", 10)));
+    }
+
+    @Test
+    public void search_ShouldReturnNothingForBlankQuery() {
+        assertTrue(searchService.search("  ", 10).isEmpty());
+        assertTrue(searchService.search(null, 10).isEmpty());
+    }
+
+    @Test
+    public void autocomplete_ShouldRespectLimit() {
+        List<SearchSuggestion> suggestions = searchService.autocomplete("s", 1);
+        assertEquals(1, suggestions.size());
+        assertEquals("20 Crate Schlenkerla", suggestions.get(0).name());
+    }
+
+    @Test
+    public void catalogChanged_ShouldReindexOnlyChangedBeverage() {
+        Bottle renamed = createBottle(2L, "Zitronen Limonade", "Bad Brambacher");
+        when(crateRepository.findById(2L)).thenReturn(Optional.empty());
+        when(bottleRepository.findById(2L)).thenReturn(Optional.of(renamed));
+
+        eventPublisher.publishEvent(CatalogChangedEvent.of(2L));
+
+        assertTrue(searchService.search("garten", 10).isEmpty());
+        assertEquals(List.of(2L), ids(searchService.search("zitro", 10)));
+        verify(bottleRepository, times(1)).findAll();
+    }
+
+    @Test
+    public void catalogChanged_ShouldDropDeletedBeverage() {
+        when(crateRepository.findById(1L)).thenReturn(Optional.empty());
+        when(bottleRepository.findById(1L)).thenReturn(Optional.empty());
+
+        eventPublisher.publishEvent(CatalogChangedEvent.of(1L));
+
+        assertEquals(List.of(3L), ids(searchService.search("schlenkerla", 10)));
+    }
+}
@@ -3,15 +3,18 @@ package beverage_store.service;
 import beverage_store.model.Bottle;
 import beverage_store.model.Beverage;
 import beverage_store.repository.BeverageRepository;
+import beverage_store.stock.InsufficientStockException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -112,6 +115,30 @@ public class BeverageServiceTest {
         verify(this.beverageRepository, never()).save(any());
     }
 
+    @Test
+    public void decreaseStock_ShouldUseOneGuardedUpdatePerLineInIdOrder() {
+        when(this.beverageRepository.decreaseStockIfAvailable(anyLong(), anyInt())).thenReturn(1);
+
+        beverageService.decreaseStock(Map.of(3L, 1, 1L, 2));
+
+        InOrder inOrder = inOrder(this.beverageRepository);
+        inOrder.verify(this.beverageRepository).decreaseStockIfAvailable(1L, 2);
+        inOrder.verify(this.beverageRepository).decreaseStockIfAvailable(3L, 1);
+        verify(this.beverageRepository, never()).findById(anyLong());
+        verify(this.beverageRepository, never()).save(any());
+    }
+
+    @Test
+    public void decreaseStock_ShouldFailWhenALineIsShort() {
+        when(this.beverageRepository.decreaseStockIfAvailable(1L, 2)).thenReturn(1);
+        when(this.beverageRepository.decreaseStockIfAvailable(3L, 5)).thenReturn(0);
+
+        InsufficientStockException e = assertThrows(InsufficientStockException.class,
+                () -> beverageService.decreaseStock(Map.of(1L, 2, 3L, 5)));
+
+        assertEquals(List.of(3L), e.getBeverageIds());
+    }
+
     @Test
     public void updateBeverageQuantity_ShouldFailWhenBeverageDoesntExists() {
         when(this.beverageRepository.findById(2L)).thenReturn(Optional.empty());
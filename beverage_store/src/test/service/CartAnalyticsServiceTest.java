@@ -0,0 +1,151 @@
+package beverage_store.service;
+
+import beverage_store.analytics.CartEvent;
+import beverage_store.analytics.EventRing;
+import beverage_store.model.CartStats;
+import beverage_store.repository.BeverageRemovalsRepository;
+import beverage_store.repository.CartActivityRepository;
+import beverage_store.service.impl.CartAnalyticsServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+public class CartAnalyticsServiceTest {
+
+    private static final long HOUR = 60 * 60_000;
+
+    @Autowired
+    private CartActivityRepository activityRepository;
+
+    @Autowired
+    private BeverageRemovalsRepository removalsRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final MutableClock clock = new MutableClock();
+
+    private CartAnalyticsServiceImpl analytics;
+
+    @BeforeEach
+    public void initCommonUsedData() {
+        activityRepository.deleteAll();
+        removalsRepository.deleteAll();
+        analytics = new CartAnalyticsServiceImpl(activityRepository, removalsRepository, transactionManager,
+                clock, 16, HOUR);
+    }
+
+    @Test
+    public void drain_shouldAggregateCheckoutsAndAbandonedCarts() {
+        analytics.record(CartEvent.Type.ADD, "a", 1L, 2);
+        analytics.record(CartEvent.Type.ADD, "b", 1L, 1);
+        analytics.record(CartEvent.Type.ADD, "c", 2L, 1);
+        clock.advance(10 * 60_000);
+        analytics.record(CartEvent.Type.REMOVE, "a", 1L, 2);
+        analytics.record(CartEvent.Type.ADD, "a", 2L, 1);
+        analytics.record(CartEvent.Type.REMOVE, "b", 1L, 1);
+        analytics.record(CartEvent.Type.CHECKOUT, "a", 0, 1);
+        analytics.record(CartEvent.Type.SESSION_END, "c", 0, 1);
+        assertEquals(8, analytics.drain());
+
+        // b went idle
+        clock.advance(HOUR);
+        assertEquals(0, analytics.drain());
+
+        LocalDate today = LocalDate.now(clock);
+        CartStats stats = analytics.getStats(today.minusDays(1), today);
+        assertEquals(3, stats.started());
+        assertEquals(1, stats.checkedOut());
+        assertEquals(2, stats.abandoned());
+        assertEquals(2.0 / 3, stats.abandonmentRate(), 1e-9);
+        assertEquals(10 * 60_000, stats.averageCheckoutMillis());
+        assertEquals(1L, stats.mostRemoved().get(0).getBeverageId());
+        assertEquals(2, stats.mostRemoved().get(0).getRemovals());
+        assertEquals(0, stats.droppedEvents());
+    }
+
+    @Test
+    public void record_shouldDropEventsWhenTheBufferIsFull() {
+        for (int i = 0; i < 20; i++) {
+            analytics.record(CartEvent.Type.ADD, "cart-" + i, 1L, 1);
+        }
+        assertEquals(16, analytics.drain());
+
+        LocalDate today = LocalDate.now(clock);
+        CartStats stats = analytics.getStats(today, today);
+        assertEquals(16, stats.started());
+        assertEquals(4, stats.droppedEvents());
+    }
+
+    @Test
+    public void eventRing_shouldHandOverEveryEventOnceWithConcurrentProducers() throws Exception {
+        EventRing<Integer> ring = new EventRing<>(1 << 16);
+        ExecutorService producers = Executors.newFixedThreadPool(4);
+        for (int p = 0; p < 4; p++) {
+            int offset = p * 10_000;
+            producers.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    assertTrue(ring.offer(offset + i));
+                }
+            });
+        }
+        List<Integer> received = new ArrayList<>();
+        producers.shutdown();
+        while (!producers.awaitTermination(1, TimeUnit.MILLISECONDS)) {
+            ring.drain(received::add, 1000);
+        }
+        ring.drain(received::add, Integer.MAX_VALUE);
+
+        assertEquals(40_000, received.size());
+        Set<Integer> distinct = new HashSet<>(received);
+        assertEquals(40_000, distinct.size());
+        assertEquals(0, ring.size());
+    }
+
+    private static final class MutableClock extends Clock {
+        private long millis = 1_700_000_000_000L;
+
+        void advance(long delta) {
+            millis += delta;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+}
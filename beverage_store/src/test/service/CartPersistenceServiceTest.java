@@ -0,0 +1,116 @@
+package beverage_store.service;
+
+import beverage_store.cart.CompactCart;
+import beverage_store.model.Bottle;
+import beverage_store.model.OrderItem;
+import beverage_store.model.SavedCart;
+import beverage_store.repository.SavedCartRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+@ActiveProfiles("test")
+@SpringBootTest
+public class CartPersistenceServiceTest {
+
+    @Autowired
+    private CartPersistenceService cartPersistenceService;
+
+    @Autowired
+    private ShoppingCartService shoppingCartService;
+
+    @Autowired
+    private SavedCartRepository savedCartRepository;
+
+    @MockBean
+    private CatalogCache catalogCache;
+
+    @BeforeEach
+    public void initCommonUsedData() {
+        cartPersistenceService.flush();
+        savedCartRepository.deleteAll();
+        when(catalogCache.findById(anyLong())).thenAnswer(invocation -> {
+            Bottle bottle = new Bottle();
+            bottle.setId(invocation.getArgument(0));
+            bottle.setInStock(100);
+            return Optional.of(bottle);
+        });
+    }
+
+    @AfterEach
+    public void releaseReservations() {
+        shoppingCartService.clearAllItems();
+        cartPersistenceService.flush();
+    }
+
+    @Test
+    public void save_shouldBufferUntilFlush() {
+        CompactCart cart = new CompactCart();
+        cart.add(1L, 2, 89);
+        cartPersistenceService.save("Max", cart);
+        cart.add(2L, 1, 1839);
+        cartPersistenceService.save("Max", cart);
+
+        assertEquals(0, savedCartRepository.count());
+        assertEquals(2, cartPersistenceService.load("Max").size());
+
+        assertEquals(1, cartPersistenceService.flush());
+        SavedCart saved = savedCartRepository.findById("Max").orElseThrow();
+        assertEquals(cart.toString(), CompactCart.fromBytes(saved.getLines()).toString());
+        assertEquals(0, cartPersistenceService.flush());
+    }
+
+    @Test
+    public void save_emptyCartShouldDeleteSavedCart() {
+        CompactCart cart = new CompactCart();
+        cart.add(1L, 2, 89);
+        savedCartRepository.save(new SavedCart("Max", cart.toBytes(), Instant.now()));
+
+        cartPersistenceService.save("Max", new CompactCart());
+        cartPersistenceService.flush("Max");
+
+        assertFalse(savedCartRepository.existsById("Max"));
+        assertTrue(cartPersistenceService.load("Max").isEmpty());
+    }
+
+    @Test
+    public void restoreSavedCart_shouldMergeAnonymousCart() {
+        CompactCart saved = new CompactCart();
+        saved.add(1L, 2, 89);
+        saved.add(2L, 1, 1839);
+        savedCartRepository.save(new SavedCart("Max", saved.toBytes(), Instant.now()));
+
+        Bottle limo = new Bottle();
+        limo.setId(2L);
+        limo.setPrice(new BigDecimal("18.39"));
+        Bottle water = new Bottle();
+        water.setId(3L);
+        water.setPrice(new BigDecimal("0.49"));
+        shoppingCartService.clearAllItems();
+        shoppingCartService.addItem(new OrderItem(limo, 1));
+        shoppingCartService.addItem(new OrderItem(water, 6));
+
+        shoppingCartService.restoreSavedCart("Max");
+
+        assertEquals(3, shoppingCartService.getLineCount());
+        assertEquals(2 + 2 + 6, shoppingCartService.getTotals().itemCount());
+
+        shoppingCartService.removeItem(new OrderItem(water, 1));
+        assertEquals(1, cartPersistenceService.flush());
+        CompactCart written = CompactCart.fromBytes(savedCartRepository.findById("Max").orElseThrow().getLines());
+        assertEquals(2, written.size());
+        assertEquals(2, written.quantityOf(2L));
+    }
+}
@@ -0,0 +1,131 @@
+package beverage_store.service;
+
+import beverage_store.event.CatalogChangedEvent;
+import beverage_store.model.Beverage;
+import beverage_store.model.Bottle;
+import beverage_store.model.CatalogCacheStats;
+import beverage_store.model.CatalogPage;
+import beverage_store.model.CatalogSnapshot;
+import beverage_store.repository.BeverageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = "catalog.cache.max-entries=2")
+public class CatalogCacheTest {
+
+    @MockBean
+    private BeverageRepository beverageRepository;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @BeforeEach
+    public void clearCache() {
+        catalogCache.evictAll();
+    }
+
+    private Bottle createBottle(long id) {
+        Bottle b = new Bottle();
+        b.setId(id);
+        b.setName("Schlenkerla");
+        b.setVolume(0.5);
+        b.setVolumePercent(5.1);
+        b.setPrice(BigDecimal.valueOf(0.89));
+        b.setSupplier("Rauchbierbrauerei Schlenkerla");
+        b.setInStock(438);
+        return b;
+    }
+
+    @Test
+    public void findById_ShouldHitDatabaseOnlyOnce() {
+        when(beverageRepository.findById(1L)).thenReturn(Optional.of(createBottle(1L)));
+        CatalogCacheStats before = catalogCache.getStats();
+
+        assertTrue(catalogCache.findById(1L).isPresent());
+        assertTrue(catalogCache.findById(1L).isPresent());
+
+        verify(beverageRepository, times(1)).findById(1L);
+        CatalogCacheStats after = catalogCache.getStats();
+        assertEquals(1, after.hits() - before.hits());
+        assertEquals(1, after.misses() - before.misses());
+    }
+
+    @Test
+    public void findById_ShouldNotCacheMissingBeverage() {
+        when(beverageRepository.findById(5L)).thenReturn(Optional.empty());
+
+        assertTrue(catalogCache.findById(5L).isEmpty());
+        assertTrue(catalogCache.findById(5L).isEmpty());
+
+        verify(beverageRepository, times(2)).findById(5L);
+    }
+
+    @Test
+    public void findById_ShouldEvictLeastRecentlyUsedEntry() {
+        for (long id = 1; id <= 3; id++) {
+            when(beverageRepository.findById(id)).thenReturn(Optional.of(createBottle(id)));
+        }
+        long evictionsBefore = catalogCache.getStats().evictions();
+
+        catalogCache.findById(1L);
+        catalogCache.findById(2L);
+        catalogCache.findById(1L);
+        catalogCache.findById(3L);
+        catalogCache.findById(1L);
+        catalogCache.findById(2L);
+
+        verify(beverageRepository, times(1)).findById(1L);
+        verify(beverageRepository, times(2)).findById(2L);
+        assertEquals(2, catalogCache.getStats().size());
+        assertEquals(2, catalogCache.getStats().evictions() - evictionsBefore);
+    }
+
+    @Test
+    public void catalogChangedEvent_ShouldInvalidateEntryAndSnapshot() {
+        when(beverageRepository.findById(1L)).thenReturn(Optional.of(createBottle(1L)));
+        when(beverageRepository.findAll(any(Sort.class))).thenReturn(List.<Beverage>of(createBottle(1L)));
+        catalogCache.findById(1L);
+        CatalogSnapshot snapshot = catalogCache.getAll();
+        assertSame(snapshot, catalogCache.getAll());
+
+        eventPublisher.publishEvent(CatalogChangedEvent.of(1L));
+
+        catalogCache.findById(1L);
+        CatalogSnapshot reloaded = catalogCache.getAll();
+        verify(beverageRepository, times(2)).findById(1L);
+        verify(beverageRepository, times(2)).findAll(any(Sort.class));
+        assertTrue(reloaded.version() > snapshot.version());
+    }
+
+    @Test
+    public void getPage_ShouldReuseLoadedPageUntilCatalogChanges() {
+        int[] loads = {0};
+        CatalogPage page = new CatalogPage();
+
+        catalogCache.getPage("ID|20|", () -> { loads[0]++; return page; });
+        assertSame(page, catalogCache.getPage("ID|20|", () -> { loads[0]++; return page; }));
+        assertEquals(1, loads[0]);
+
+        eventPublisher.publishEvent(CatalogChangedEvent.all());
+        catalogCache.getPage("ID|20|", () -> { loads[0]++; return page; });
+        assertEquals(2, loads[0]);
+    }
+}
@@ -0,0 +1,72 @@
+package beverage_store.service;
+
+import beverage_store.model.Bottle;
+import beverage_store.model.Crate;
+import beverage_store.repository.BeverageRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+public class CatalogExportServiceTest {
+
+    @MockBean
+    private BeverageRepository beverageRepository;
+
+    @Autowired
+    private CatalogExportService exportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void writeJson_ShouldWriteBottlesAndCratesAndCloseTheStream() throws Exception {
+        Bottle schlenkerla = new Bottle();
+        schlenkerla.setId(1L);
+        schlenkerla.setName("Schlenkerla");
+        schlenkerla.setVolume(0.5);
+        schlenkerla.setVolumePercent(5.1);
+        schlenkerla.setPrice(BigDecimal.valueOf(0.89));
+        schlenkerla.setSupplier("Rauchbierbrauerei Schlenkerla");
+        schlenkerla.setInStock(438);
+
+        Crate crate = new Crate();
+        crate.setId(3L);
+        crate.setName("20 Crate Schlenkerla");
+        crate.setNoOfBottles(20);
+        crate.setPrice(BigDecimal.valueOf(18.39));
+        crate.setInStock(13);
+        crate.setBottle(schlenkerla);
+
+        AtomicBoolean closed = new AtomicBoolean();
+        when(beverageRepository.streamAllByOrderByIdAsc())
+                .thenReturn(Stream.of(schlenkerla, crate).onClose(() -> closed.set(true)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = exportService.writeJson(out);
+
+        assertEquals(2, written);
+        assertTrue(closed.get());
+        JsonNode json = objectMapper.readTree(out.toByteArray());
+        assertEquals(2, json.size());
+        assertEquals("bottle", json.get(0).get("type").asText());
+        assertTrue(json.get(0).get("alcoholic").asBoolean());
+        assertEquals("Rauchbierbrauerei Schlenkerla", json.get(0).get("supplier").asText());
+        assertEquals("crate", json.get(1).get("type").asText());
+        assertEquals(18.39, json.get(1).get("price").asDouble());
+        assertEquals(1L, json.get(1).get("bottleId").asLong());
+    }
+}
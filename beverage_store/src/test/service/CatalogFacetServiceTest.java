@@ -0,0 +1,137 @@
+package beverage_store.service;
+
+import beverage_store.event.CatalogChangedEvent;
+import beverage_store.model.Bottle;
+import beverage_store.model.CatalogCursor;
+import beverage_store.model.CatalogSort;
+import beverage_store.model.Crate;
+import beverage_store.model.Facet;
+import beverage_store.model.FacetCounts;
+import beverage_store.model.FacetFilter;
+import beverage_store.repository.BottleRepository;
+import beverage_store.repository.CrateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+public class CatalogFacetServiceTest {
+
+    @MockBean
+    private BottleRepository bottleRepository;
+
+    @MockBean
+    private CrateRepository crateRepository;
+
+    @Autowired
+    private CatalogFacetService facetService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private Bottle schlenkerla;
+    private Bottle limo;
+    private Bottle wine;
+
+    @BeforeEach
+    public void initCommonUsedData() {
+        schlenkerla = createBottle(1L, "Schlenkerla", 5.1, "0.89");
+        limo = createBottle(2L, "Garten Limonade", 0.0, "0.79");
+        wine = createBottle(4L, "Dornfelder", 12.5, "6.49");
+
+        Crate crate = new Crate();
+        crate.setId(3L);
+        crate.setName("20 Crate Schlenkerla");
+        crate.setNoOfBottles(20);
+        crate.setPrice(BigDecimal.valueOf(18.39));
+        crate.setInStock(13);
+        crate.setBottle(schlenkerla);
+
+        when(bottleRepository.findAll()).thenReturn(List.of(schlenkerla, limo, wine));
+        when(crateRepository.findAll()).thenReturn(List.of(crate));
+        facetService.rebuild();
+    }
+
+    private Bottle createBottle(long id, String name, double abv, String price) {
+        Bottle b = new Bottle();
+        b.setId(id);
+        b.setName(name);
+        b.setVolume(0.5);
+        b.setVolumePercent(abv);
+        b.setPrice(new BigDecimal(price));
+        b.setSupplier("Supplier " + id);
+        b.setInStock(10);
+        return b;
+    }
+
+    private static FacetFilter filter(Map<String, List<String>> params) {
+        return FacetFilter.fromParams(params);
+    }
+
+    @Test
+    public void getCounts_WithoutFilterCountsEveryBeverage() {
+        FacetCounts counts = facetService.getCounts(FacetFilter.none());
+
+        assertEquals(4, counts.matches());
+        assertEquals(Map.of("bottle", 3, "crate", 1), counts.of(Facet.TYPE));
+        assertEquals(Map.of("yes", 3, "no", 1), counts.of(Facet.ALCOHOLIC));
+    }
+
+    @Test
+    public void getCounts_OwnFacetSelectionDoesNotRestrictItsCounts() {
+        FacetCounts counts = facetService.getCounts(filter(Map.of("type", List.of("crate"))));
+
+        assertEquals(1, counts.matches());
+        assertEquals(Map.of("bottle", 3, "crate", 1), counts.of(Facet.TYPE));
+        assertEquals(Map.of("yes", 1, "no", 0), counts.of(Facet.ALCOHOLIC));
+    }
+
+    @Test
+    public void findIds_OrWithinFacetAndAcrossFacets() {
+        FacetFilter abvAndPrice = filter(Map.of(
+                "abv", List.of("5-10", "10+"),
+                "price", List.of("0-1")));
+
+        assertEquals(List.of(1L), facetService.findIds(abvAndPrice, CatalogSort.ID, null, true, 10));
+        assertEquals(List.of(1L, 3L, 4L),
+                facetService.findIds(filter(Map.of("alcoholic", List.of("yes"))), CatalogSort.ID, null, true, 10));
+    }
+
+    @Test
+    public void findIds_KeysetPagesByNameInBothDirections() {
+        FacetFilter alcoholic = filter(Map.of("alcoholic", List.of("yes")));
+
+        // name order: 20 Crate Schlenkerla (3), Dornfelder (4), Schlenkerla (1)
+        List<Long> first = facetService.findIds(alcoholic, CatalogSort.NAME, null, true, 2);
+        assertEquals(List.of(3L, 4L), first);
+
+        CatalogCursor afterDornfelder = new CatalogCursor("Dornfelder", 4L);
+        assertEquals(List.of(1L), facetService.findIds(alcoholic, CatalogSort.NAME, afterDornfelder, true, 2));
+        assertEquals(List.of(3L), facetService.findIds(alcoholic, CatalogSort.NAME, afterDornfelder, false, 2));
+    }
+
+    @Test
+    public void onCatalogChanged_ReindexesChangedBeverage() {
+        limo.setVolumePercent(2.5);
+        when(bottleRepository.findById(2L)).thenReturn(Optional.of(limo));
+
+        eventPublisher.publishEvent(CatalogChangedEvent.of(2L));
+
+        FacetCounts counts = facetService.getCounts(FacetFilter.none());
+        assertEquals(Map.of("yes", 4), counts.of(Facet.ALCOHOLIC));
+        assertEquals(1, counts.of(Facet.ALCOHOL_CONTENT).get("0.5-5"));
+    }
+}
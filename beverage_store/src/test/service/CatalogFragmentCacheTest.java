@@ -0,0 +1,68 @@
+package beverage_store.service;
+
+import beverage_store.model.CatalogEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+public class CatalogFragmentCacheTest {
+
+    @Autowired
+    private CatalogFragmentCache fragmentCache;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    private List<CatalogEntry> entries;
+
+    @BeforeEach
+    public void initCommonUsedData() {
+        catalogCache.evictAll();
+        entries = List.of(
+                new CatalogEntry(1L, "Schlenkerla", "https://example.com/schlenkerla.jpg", BigDecimal.valueOf(0.89), 438, "bottle"),
+                new CatalogEntry(3L, "20 Crate Schlenkerla", null, BigDecimal.valueOf(18.39), 0, "crate"));
+    }
+
+    @Test
+    public void render_ShouldRenderRowsAndRequestToken() {
+        String html = fragmentCache.render(entries, "", "_csrf", "token-a");
+
+        assertTrue(html.contains("Schlenkerla"));
+        assertTrue(html.contains("Out of stock"));
+        assertTrue(html.contains("action=\"/shoppingcart/add\""));
+        assertTrue(html.contains("value=\"token-a\""));
+        assertTrue(html.contains("src=\"/images/beverages/1/catalog?v="));
+    }
+
+    @Test
+    public void render_ShouldReuseMarkupForOtherTokens() {
+        String first = fragmentCache.render(entries, "", "_csrf", "token-a");
+        String second = fragmentCache.render(entries, "", "_csrf", "token-b");
+
+        assertEquals(1, fragmentCache.size());
+        assertEquals(first.replace("token-a", "token-b"), second);
+    }
+
+    @Test
+    public void render_ShouldDropMarkupWhenCatalogVersionChanges() {
+        fragmentCache.render(entries, "", "_csrf", "token-a");
+        assertEquals(1, fragmentCache.size());
+
+        catalogCache.evict(1L);
+        List<CatalogEntry> restocked = List.of(
+                new CatalogEntry(1L, "Schlenkerla", null, BigDecimal.valueOf(0.89), 437, "bottle"));
+        String html = fragmentCache.render(restocked, "", "_csrf", "token-a");
+
+        assertEquals(1, fragmentCache.size());
+        assertTrue(html.contains(">437<"));
+    }
+}
@@ -0,0 +1,113 @@
+package beverage_store.service;
+
+import beverage_store.model.Bottle;
+import beverage_store.model.Crate;
+import beverage_store.model.ImportFormat;
+import beverage_store.model.ImportReport;
+import beverage_store.repository.BottleRepository;
+import beverage_store.repository.CrateRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+public class CatalogImportServiceTest {
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @Autowired
+    private BottleRepository bottleRepository;
+
+    @Autowired
+    private CrateRepository crateRepository;
+
+    private ImportReport importText(String text, ImportFormat format) throws IOException {
+        return catalogImportService.importCatalog(
+                new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), format);
+    }
+
+    private Bottle bottleNamed(String name) {
+        return bottleRepository.findAll().stream()
+                .filter(b -> name.equals(b.getName()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Test
+    public void importCatalog_ShouldInsertBottlesAndCratesFromCsv() throws Exception {
+        String csv = """
+                type,name,price,pic,inStock,volume,volumePercent,supplier,noOfBottles,bottle
+                crate,6 Crate Import Helles,5.99,,10,,,,6,Import Helles
+                bottle,Import Helles,1.09,https://example.com/helles.jpg,200,0.5,4.9,Import Brewery,,
+                bottle,Import Water,0.39,,50,0.75,0,Import Spring,,
+                """;
+
+        ImportReport report = importText(csv, ImportFormat.CSV);
+
+        assertEquals(3, report.getRowsRead());
+        assertEquals(2, report.getBottlesInserted());
+        assertEquals(1, report.getCratesInserted());
+        assertEquals(0, report.getRejected(), () -> report.getErrors().toString());
+
+        Bottle helles = bottleNamed("Import Helles");
+        assertTrue(helles.isAlcoholic());
+        assertFalse(bottleNamed("Import Water").isAlcoholic());
+        Crate crate = crateRepository.findAll().stream()
+                .filter(c -> "6 Crate Import Helles".equals(c.getName()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(helles.getId(), crate.getBottle().getId());
+        assertEquals(6, crate.getNoOfBottles());
+    }
+
+    @Test
+    public void importCatalog_ShouldReportInvalidRowsAndKeepTheRest() throws Exception {
+        String csv = """
+                type,name,price,pic,inStock,volume,volumePercent,supplier,noOfBottles,bottle
+                bottle,Import Pils,0.99,,10,0.33,4.8,Import Brewery,,
+                bottle,,0.99,,10,0.33,4.8,Import Brewery,,
+                bottle,Import Fake,cheap,,10,0.33,4.8,Import Brewery,,
+                bottle,Import Spirit,12.99,,10,0.7,140,Import Distillery,,
+                crate,20 Crate Nothing,9.99,,5,,,,20,No Such Bottle
+                """;
+
+        ImportReport report = importText(csv, ImportFormat.CSV);
+
+        assertEquals(5, report.getRowsRead());
+        assertEquals(1, report.getBottlesInserted());
+        assertEquals(4, report.getRejected());
+        List<Long> rows = report.getErrors().stream().map(e -> e.row()).toList();
+        assertEquals(List.of(2L, 3L, 4L, 5L), rows.stream().sorted().toList());
+        assertTrue(report.getErrors().stream().anyMatch(e -> e.message().contains("No Such Bottle")));
+    }
+
+    @Test
+    public void importCatalog_ShouldReadJsonArrays() throws Exception {
+        String json = """
+                [
+                  {"type": "bottle", "name": "Import Cola", "price": 1.29, "inStock": 30,
+                   "volume": 1.0, "volumePercent": 0.0, "supplier": "Import Soda"},
+                  {"type": "crate", "name": "12 Crate Import Cola", "price": 13.49, "inStock": 3,
+                   "noOfBottles": 12, "bottle": "import cola"}
+                ]
+                """;
+
+        ImportReport report = importText(json, ImportFormat.JSON);
+
+        assertEquals(1, report.getBottlesInserted());
+        assertEquals(1, report.getCratesInserted());
+        assertEquals(0, report.getRejected());
+        assertEquals(0, new BigDecimal("1.29").compareTo(bottleNamed("Import Cola").getPrice()));
+    }
+}
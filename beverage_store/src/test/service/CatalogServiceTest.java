@@ -0,0 +1,168 @@
+package beverage_store.service;
+
+import beverage_store.model.Bottle;
+import beverage_store.model.CatalogCursor;
+import beverage_store.model.CatalogEntry;
+import beverage_store.model.CatalogPage;
+import beverage_store.model.CatalogSort;
+import beverage_store.model.FacetFilter;
+import beverage_store.repository.BeverageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = "catalog.page-size=2")
+public class CatalogServiceTest {
+
+    @MockBean
+    private BeverageRepository beverageRepository;
+
+    @MockBean
+    private CatalogFacetService facetService;
+
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @BeforeEach
+    public void clearCache() {
+        // pages are cached per catalog version; start every test from an empty cache
+        catalogCache.evictAll();
+    }
+
+    private Bottle createBottle(long id, String name) {
+        Bottle b = new Bottle();
+        b.setId(id);
+        b.setName(name);
+        b.setVolume(0.5);
+        b.setVolumePercent(5.1);
+        b.setPrice(BigDecimal.valueOf(0.89));
+        b.setSupplier("Rauchbierbrauerei Schlenkerla");
+        b.setInStock(10);
+        return b;
+    }
+
+    private List<CatalogEntry> bottles(long... ids) {
+        List<CatalogEntry> result = new ArrayList<>();
+        for (long id : ids) {
+            result.add(CatalogEntry.of(createBottle(id, "Bottle " + id)));
+        }
+        return result;
+    }
+
+    @Test
+    public void getPage_FirstPageHasOnlyNextCursor() {
+        when(beverageRepository.findPageAfterId(0L, Limit.of(3))).thenReturn(bottles(1, 2, 3));
+
+        CatalogPage page = catalogService.getPage(CatalogSort.ID, FacetFilter.none(), null, null, null);
+
+        assertEquals(2, page.getBeverages().size());
+        assertNull(page.getPreviousCursor());
+        assertEquals(2L, CatalogCursor.decode(page.getNextCursor()).id());
+    }
+
+    @Test
+    public void getPage_LastPageHasOnlyPreviousCursor() {
+        String after = new CatalogCursor(null, 2L).encode();
+        when(beverageRepository.findPageAfterId(2L, Limit.of(3))).thenReturn(bottles(3));
+
+        CatalogPage page = catalogService.getPage(CatalogSort.ID, FacetFilter.none(), after, null, null);
+
+        assertEquals(1, page.getBeverages().size());
+        assertNull(page.getNextCursor());
+        assertEquals(3L, CatalogCursor.decode(page.getPreviousCursor()).id());
+    }
+
+    @Test
+    public void getPage_BackwardsReturnsRowsInDisplayOrder() {
+        String before = new CatalogCursor(null, 5L).encode();
+        when(beverageRepository.findPageBeforeId(5L, Limit.of(3))).thenReturn(bottles(4, 3, 2));
+
+        CatalogPage page = catalogService.getPage(CatalogSort.ID, FacetFilter.none(), null, before, null);
+
+        assertEquals(List.of(3L, 4L), page.getBeverages().stream().map(CatalogEntry::id).toList());
+        assertNotNull(page.getPreviousCursor());
+        assertNotNull(page.getNextCursor());
+    }
+
+    @Test
+    public void getPage_SortByNameSeeksOnNameAndId() {
+        String after = new CatalogCursor("Bottle 2", 2L).encode();
+        when(beverageRepository.findPageAfterName("Bottle 2", 2L, Limit.of(3))).thenReturn(bottles(3, 4));
+
+        CatalogPage page = catalogService.getPage(CatalogSort.NAME, FacetFilter.none(), after, null, null);
+
+        assertEquals(2, page.getBeverages().size());
+        assertNull(page.getNextCursor());
+        CatalogCursor previous = CatalogCursor.decode(page.getPreviousCursor());
+        assertEquals("Bottle 3", previous.name());
+        assertEquals(3L, previous.id());
+    }
+
+    @Test
+    public void getPage_IgnoresCursorOfOtherSortOrder() {
+        String idCursor = new CatalogCursor(null, 7L).encode();
+        when(beverageRepository.findFirstPageByName(Limit.of(3))).thenReturn(bottles(1));
+
+        catalogService.getPage(CatalogSort.NAME, FacetFilter.none(), idCursor, null, null);
+
+        verify(beverageRepository, times(1)).findFirstPageByName(Limit.of(3));
+        verify(beverageRepository, never()).findPageAfterName(any(), anyLong(), any());
+    }
+
+    @Test
+    public void getPage_ClampsPageSize() {
+        when(beverageRepository.findPageAfterId(eq(0L), any())).thenReturn(bottles(1));
+
+        catalogService.getPage(CatalogSort.ID, FacetFilter.none(), null, null, 10_000);
+
+        verify(beverageRepository, times(1)).findPageAfterId(0L, Limit.of(3));
+    }
+
+    @Test
+    public void getPage_ShouldServeRepeatedRequestsFromCache() {
+        when(beverageRepository.findPageAfterId(0L, Limit.of(3))).thenReturn(bottles(1, 2, 3));
+
+        catalogService.getPage(CatalogSort.ID, FacetFilter.none(), null, null, null);
+        catalogService.getPage(CatalogSort.ID, FacetFilter.none(), null, null, null);
+
+        verify(beverageRepository, times(1)).findPageAfterId(0L, Limit.of(3));
+    }
+
+    @Test
+    public void getPage_WithFilterLoadsOnlyPageIdsFromFacetIndex() {
+        FacetFilter filter = FacetFilter.fromParams(Map.of("type", List.of("bottle")));
+        when(facetService.findIds(filter, CatalogSort.ID, null, true, 3)).thenReturn(List.of(4L, 9L));
+        when(beverageRepository.findEntriesByIdIn(List.of(4L, 9L))).thenReturn(bottles(9, 4));
+
+        CatalogPage page = catalogService.getPage(CatalogSort.ID, filter, null, null, null);
+
+        assertEquals(List.of(4L, 9L), page.getBeverages().stream().map(CatalogEntry::id).toList());
+        assertNull(page.getNextCursor());
+        verify(beverageRepository, never()).findPageAfterId(anyLong(), any());
+    }
+
+    @Test
+    public void decodeCursor_RejectsGarbage() {
+        assertNull(CatalogCursor.decode("not a cursor!"));
+        assertNull(CatalogCursor.decode(""));
+    }
+}
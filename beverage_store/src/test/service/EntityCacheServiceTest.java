@@ -0,0 +1,112 @@
+package beverage_store.service;
+
+import beverage_store.event.CatalogChangedEvent;
+import beverage_store.model.Beverage;
+import beverage_store.model.Bottle;
+import beverage_store.model.CacheRegionStats;
+import beverage_store.repository.BeverageRepository;
+import beverage_store.repository.BottleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+public class EntityCacheServiceTest {
+
+    @Autowired
+    private EntityCacheService entityCacheService;
+
+    @Autowired
+    private BeverageService beverageService;
+
+    @Autowired
+    private BeverageRepository beverageRepository;
+
+    @Autowired
+    private BottleRepository bottleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private Long bottleId;
+
+    @BeforeEach
+    public void initCommonUsedData() {
+        Bottle bottle = new Bottle();
+        bottle.setName("Cached Pils");
+        bottle.setPrice(BigDecimal.valueOf(0.99));
+        bottle.setVolume(0.5);
+        bottle.setVolumePercent(4.9);
+        bottle.setSupplier("Cache Brewery");
+        bottle.setInStock(10);
+        bottleId = bottleRepository.save(bottle).getId();
+        entityCacheService.evictAll();
+    }
+
+    private CacheRegionStats region(String name) {
+        return entityCacheService.getRegionStats().stream()
+                .filter(stats -> stats.region().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private int stockOf(Long id) {
+        return beverageRepository.findById(id).map(Beverage::getInStock).orElseThrow();
+    }
+
+    @Test
+    public void findById_ShouldBeAnsweredFromEntityRegion() {
+        long hitsBefore = region("beverage").hits();
+
+        stockOf(bottleId);
+        stockOf(bottleId);
+
+        assertTrue(region("beverage").hits() > hitsBefore);
+        assertEquals("entity", region("beverage").kind());
+    }
+
+    @Test
+    public void findAllByOrderByNameAsc_ShouldUseQueryRegion() {
+        // the query region is created on first use
+        int first = bottleRepository.findAllByOrderByNameAsc().size();
+        long hitsBefore = region("catalog-by-name").hits();
+
+        int second = bottleRepository.findAllByOrderByNameAsc().size();
+
+        assertEquals(first, second);
+        assertEquals(hitsBefore + 1, region("catalog-by-name").hits());
+        assertEquals("query", region("catalog-by-name").kind());
+    }
+
+    @Test
+    public void updateBeverageQuantity_ShouldNotServeStaleStock() {
+        assertEquals(10, stockOf(bottleId));
+
+        beverageService.updateBeverageQuantity(bottleId, 7);
+
+        assertEquals(7, stockOf(bottleId));
+    }
+
+    @Test
+    public void catalogChangedEvent_ShouldEvictRowsChangedBehindHibernate() {
+        assertEquals(10, stockOf(bottleId));
+
+        jdbcTemplate.update("update beverage set in_stock = 3 where id = ?", bottleId);
+        assertEquals(10, stockOf(bottleId));
+
+        eventPublisher.publishEvent(CatalogChangedEvent.of(bottleId));
+        assertEquals(3, stockOf(bottleId));
+    }
+}
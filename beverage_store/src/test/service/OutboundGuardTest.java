@@ -0,0 +1,147 @@
+package beverage_store.service;
+
+import beverage_store.model.OutboundCallStats;
+import beverage_store.outbound.CallNotPermittedException;
+import beverage_store.outbound.CircuitBreaker;
+import beverage_store.outbound.OutboundConfig;
+import beverage_store.outbound.OutboundGuard;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OutboundGuardTest {
+
+    private final MutableClock clock = new MutableClock();
+
+    private StubFunctionServer stub;
+    private OutboundGuard guard;
+    private RestTemplate restTemplate;
+
+    @BeforeEach
+    public void initCommonUsedData() throws Exception {
+        stub = new StubFunctionServer();
+        // opens when 2 of the last 4 calls (at least 2) failed, probes after 1s
+        guard = new OutboundGuard(1, new CircuitBreaker(clock, 4, 2, 0.5, 1000, 1));
+        restTemplate = new OutboundConfig().restTemplate(guard, 1000, 300, false);
+    }
+
+    @AfterEach
+    public void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    public void call_shouldTimeOutOnASlowDownstream() {
+        stub.delayMillis = 2000;
+
+        long start = System.nanoTime();
+        assertThrows(ResourceAccessException.class, () -> post());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1500);
+
+        OutboundCallStats stats = guard.getStats();
+        assertEquals(1, stats.calls());
+        assertEquals(1, stats.failures());
+        assertEquals(0, stats.inFlight());
+    }
+
+    @Test
+    public void breaker_shouldOpenAfterFailuresAndCloseAfterASuccessfulProbe() {
+        stub.status = 503;
+        assertThrows(HttpServerErrorException.class, () -> post());
+        assertThrows(HttpServerErrorException.class, () -> post());
+        assertEquals("OPEN", guard.getStats().breakerState());
+
+        // rejected without reaching the downstream
+        assertThrows(CallNotPermittedException.class, () -> post());
+        assertEquals(2, stub.requests());
+
+        clock.advance(1000);
+        stub.status = 200;
+        assertEquals("{}", post());
+        assertEquals(3, stub.requests());
+
+        OutboundCallStats stats = guard.getStats();
+        assertEquals("CLOSED", stats.breakerState());
+        assertEquals(1, stats.breakerOpenings());
+        assertEquals(1, stats.rejectedOpen());
+    }
+
+    @Test
+    public void breaker_shouldOpenAgainWhenTheProbeFails() {
+        stub.status = 500;
+        assertThrows(HttpServerErrorException.class, () -> post());
+        assertThrows(HttpServerErrorException.class, () -> post());
+
+        clock.advance(1000);
+        assertThrows(HttpServerErrorException.class, () -> post());
+        assertThrows(CallNotPermittedException.class, () -> post());
+
+        assertEquals(3, stub.requests());
+        assertEquals(2, guard.getStats().breakerOpenings());
+    }
+
+    @Test
+    public void bulkhead_shouldRejectCallsBeyondTheLimitAndReleaseThePermit() throws Exception {
+        // a long read timeout, so only the gate decides when the first call ends
+        restTemplate = new OutboundConfig().restTemplate(guard, 1000, 10_000, false);
+        CountDownLatch gate = new CountDownLatch(1);
+        stub.gate = gate;
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(this::post);
+        while (stub.requests() == 0) {
+            Thread.sleep(5);
+        }
+
+        assertThrows(CallNotPermittedException.class, () -> post());
+        assertEquals(1, guard.getStats().inFlight());
+
+        gate.countDown();
+        assertEquals("{}", first.get(5, TimeUnit.SECONDS));
+        assertEquals(0, guard.getStats().inFlight());
+        assertEquals("{}", post());
+        assertEquals(1, guard.getStats().rejectedFull());
+    }
+
+    private String post() {
+        return restTemplate.postForObject(stub.url(), "{\"id\":1}", String.class);
+    }
+
+    private static final class MutableClock extends Clock {
+        private long millis = 1_700_000_000_000L;
+
+        void advance(long delta) {
+            millis += delta;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package beverage_store.service;
+
+import beverage_store.model.OutboxMessage;
+import beverage_store.model.OrderDTO;
+import beverage_store.outbox.OutboxHandler;
+import beverage_store.repository.OutboxRepository;
+import beverage_store.service.impl.OutboxServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+public class OutboxServiceTest {
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final MutableClock clock = new MutableClock();
+    private final RecordingHandler handler = new RecordingHandler();
+
+    private OutboxServiceImpl outbox;
+
+    @BeforeEach
+    public void initCommonUsedData() {
+        outboxRepository.deleteAll();
+        outbox = new OutboxServiceImpl(outboxRepository, objectMapper, transactionManager, List.of(handler),
+                clock, 2, 3, 1000, 60_000, 300_000);
+    }
+
+    @Test
+    public void dispatch_shouldDeliverInBatchesAndDelete() {
+        for (long id = 1; id <= 5; id++) {
+            enqueue(id);
+        }
+
+        assertEquals(5, outbox.dispatch());
+
+        assertEquals(5, handler.payloads.size());
+        assertTrue(handler.payloads.get(0).contains("\"id\":1"));
+        assertEquals(0, outboxRepository.count());
+    }
+
+    @Test
+    public void dispatch_shouldBackOffAndMarkDeadAfterTheLastAttempt() {
+        handler.failing = true;
+        enqueue(1L);
+
+        assertEquals(0, outbox.dispatch());
+        OutboxMessage message = outboxRepository.findAll().get(0);
+        assertEquals(1, message.getAttempts());
+        assertEquals(clock.instant().plusMillis(1000), message.getNextAttemptAt());
+
+        // not due yet
+        clock.advance(999);
+        outbox.dispatch();
+        assertEquals(1, handler.calls);
+
+        clock.advance(1);
+        outbox.dispatch();
+        message = outboxRepository.findAll().get(0);
+        assertEquals(2, message.getAttempts());
+        assertEquals(clock.instant().plusMillis(2000), message.getNextAttemptAt());
+
+        clock.advance(2000);
+        outbox.dispatch();
+        message = outboxRepository.findAll().get(0);
+        assertEquals(OutboxMessage.Status.DEAD, message.getStatus());
+        assertEquals("function down", message.getLastError());
+
+        clock.advance(Duration.ofDays(1).toMillis());
+        outbox.dispatch();
+        assertEquals(3, handler.calls);
+    }
+
+    @Test
+    public void enqueue_shouldRequireTheCallersTransaction() {
+        assertThrows(IllegalTransactionStateException.class, () -> outboxService.enqueue("order-pdf", new OrderDTO()));
+        assertEquals(0, outboxRepository.count());
+    }
+
+    private void enqueue(long orderId) {
+        OrderDTO confirmation = new OrderDTO();
+        confirmation.setId(orderId);
+        confirmation.setTotalPrice(new BigDecimal("1.78"));
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                outbox.enqueue(RecordingHandler.TOPIC, confirmation));
+    }
+
+    private static final class RecordingHandler implements OutboxHandler {
+        static final String TOPIC = "test";
+
+        private final List<String> payloads = new ArrayList<>();
+        private boolean failing;
+        private int calls;
+
+        @Override
+        public String topic() {
+            return TOPIC;
+        }
+
+        @Override
+        public void deliver(String payload) {
+            calls++;
+            if (failing) {
+                throw new IllegalStateException("function down");
+            }
+            payloads.add(payload);
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private long millis = 1_700_000_000_000L;
+
+        void advance(long delta) {
+            millis += delta;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+}
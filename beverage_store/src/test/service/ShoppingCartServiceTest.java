@@ -1,17 +1,40 @@
 package beverage_store.service;
 
+import beverage_store.cart.CompactCart;
+import beverage_store.model.Beverage;
 import beverage_store.model.Bottle;
+import beverage_store.model.CartChange;
+import beverage_store.model.CartTotals;
+import beverage_store.model.Money;
+import beverage_store.model.Order;
+import beverage_store.model.OrderDTO;
 import beverage_store.model.OrderItem;
+import beverage_store.repository.BottleRepository;
+import beverage_store.repository.OrderRepository;
 import beverage_store.service.impl.ShoppingCartServiceImpl;
+import beverage_store.stock.InsufficientStockException;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
 
 @ActiveProfiles("test")
 @SpringBootTest
@@ -20,6 +43,18 @@ public class ShoppingCartServiceTest {
     @Autowired
     private ShoppingCartServiceImpl shoppingCartService;
 
+    @MockBean
+    private CatalogCache catalogCache;
+
+    @MockBean
+    private OutboxService outboxService;
+
+    @Autowired
+    private BottleRepository bottleRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
     private Bottle schlenkerla;
     private OrderItem sampleItem;
     private List<OrderItem> items;
@@ -36,16 +71,36 @@ public class ShoppingCartServiceTest {
         schlenkerla.setPic("https://www.getraenkewelt-weiser.de/images/product/01/85/40/18546-0-p.jpg");
         schlenkerla.setVolume(0.5);
         schlenkerla.setVolumePercent(5.1);
-        schlenkerla.setPrice(0.89);
+        schlenkerla.setPrice(BigDecimal.valueOf(0.89));
         schlenkerla.setSupplier("Rauchbierbrauerei Schlenkerla");
         schlenkerla.setInStock(438);
 
         sampleItem = new OrderItem(schlenkerla, 34);
+        when(catalogCache.findAllById(anyCollection())).thenReturn(Map.<Long, Beverage>of(1L, schlenkerla));
+        when(catalogCache.findById(anyLong())).thenAnswer(invocation -> {
+            // stock for the reservations; other beverages of the tests have plenty
+            long id = invocation.getArgument(0);
+            if (id == 1L) {
+                return Optional.of(schlenkerla);
+            }
+            Bottle other = new Bottle();
+            other.setId(id);
+            other.setInStock(100);
+            return Optional.of(other);
+        });
+    }
+
+    @AfterEach
+    public void releaseReservations() {
+        // the next test runs in a new session, so this cart's stock reservations would otherwise linger
+        shoppingCartService.clearAllItems();
     }
 
     @Test
     public void addItem_ShouldSuccessOnNewItem() {
         shoppingCartService.addItem(sampleItem);
+
+        items = shoppingCartService.getItemsInCart();
         assertTrue(items.contains(sampleItem));
     }
 
@@ -54,6 +109,7 @@ public class ShoppingCartServiceTest {
         shoppingCartService.addItem(sampleItem);
         shoppingCartService.addItem(sampleItem);
 
+        items = shoppingCartService.getItemsInCart();
         assertTrue(items.contains(sampleItem));
         assertEquals(34 * 2, items.get(0).getQuantity());
     }
@@ -65,6 +121,7 @@ public class ShoppingCartServiceTest {
 
         shoppingCartService.updateItem(sampleItem);
 
+        items = shoppingCartService.getItemsInCart();
         assertTrue(items.contains(sampleItem));
         assertEquals(1, items.get(0).getQuantity());
     }
@@ -72,35 +129,219 @@ public class ShoppingCartServiceTest {
     @Test
     public void updateItem_ShouldRemoveItem() {
         shoppingCartService.addItem(sampleItem);
-        sampleItem.setQuantity(0);
+        // OrderItem.setQuantity rejects 0, so the item is stubbed
+        OrderItem zero = mock(OrderItem.class);
+        when(zero.getBeverage()).thenReturn(schlenkerla);
+        when(zero.getQuantity()).thenReturn(0);
 
-        shoppingCartService.updateItem(sampleItem);
+        shoppingCartService.updateItem(zero);
 
+        items = shoppingCartService.getItemsInCart();
         assertFalse(items.contains(sampleItem));
     }
 
+    @Test
+    public void addItem_ShouldRejectMoreThanInStock() {
+        schlenkerla.setInStock(40);
+        shoppingCartService.addItem(sampleItem);
+
+        assertThrows(InsufficientStockException.class, () -> shoppingCartService.addItem(new OrderItem(schlenkerla, 7)));
+        assertEquals(34, shoppingCartService.getTotals().itemCount());
+
+        sampleItem.setQuantity(40);
+        shoppingCartService.updateItem(sampleItem);
+        assertEquals(40, shoppingCartService.getTotals().itemCount());
+
+        shoppingCartService.clearAllItems();
+        shoppingCartService.addItem(new OrderItem(schlenkerla, 40));
+        assertEquals(40, shoppingCartService.getTotals().itemCount());
+    }
+
+    @Test
+    public void updateQuantities_ShouldApplyAllLines() {
+        Bottle limo = new Bottle();
+        limo.setId(2L);
+        limo.setPrice(new BigDecimal("1.10"));
+        shoppingCartService.addItem(sampleItem);
+        shoppingCartService.addItem(new OrderItem(limo, 3));
+
+        shoppingCartService.updateQuantities(Map.of(1L, 5, 2L, 0, 3L, 4));
+
+        assertEquals(new CartTotals(Money.ofCents(5 * 89), 5, 1), shoppingCartService.getTotals());
+    }
+
+    @Test
+    public void revalidate_ShouldRepriceAndLowerToStoredStock() {
+        Bottle stored = new Bottle();
+        stored.setName("Revalidation Helles");
+        stored.setPic("https://example.org/helles.jpg");
+        stored.setVolume(0.5);
+        stored.setVolumePercent(4.9);
+        stored.setPrice(new BigDecimal("1.09"));
+        stored.setSupplier("Test Brewery");
+        stored.setInStock(3);
+        stored = bottleRepository.save(stored);
+        try {
+            shoppingCartService.addItem(new OrderItem(stored, 3));
+            stored.setPrice(new BigDecimal("1.19"));
+            stored.setInStock(2);
+            bottleRepository.save(stored);
+
+            List<CartChange> changes = shoppingCartService.revalidate();
+
+            assertEquals(List.of(CartChange.Kind.REPRICED, CartChange.Kind.REDUCED),
+                    changes.stream().map(CartChange::kind).toList());
+            assertEquals(new CartTotals(Money.ofCents(2 * 119), 2, 1), shoppingCartService.getTotals());
+            assertTrue(shoppingCartService.revalidate().isEmpty());
+        } finally {
+            bottleRepository.delete(stored);
+        }
+    }
+
+    @Test
+    public void placeOrder_ShouldDecrementWhatTheOrderHoldsWhenTheCartChangedSince() {
+        Bottle stored = new Bottle();
+        stored.setName("Checkout Helles");
+        stored.setPic("https://example.org/helles.jpg");
+        stored.setVolume(0.5);
+        stored.setVolumePercent(4.9);
+        stored.setPrice(new BigDecimal("1.09"));
+        stored.setSupplier("Test Brewery");
+        stored.setInStock(10);
+        stored = bottleRepository.save(stored);
+        Order order = new Order();
+        try {
+            when(catalogCache.findAllById(anyCollection())).thenReturn(Map.<Long, Beverage>of(stored.getId(), stored));
+            shoppingCartService.addItem(new OrderItem(stored, 2));
+            shoppingCartService.getItemsInCart().forEach(order::addOrderItem);
+            order.setTotalPrice(order.priceTotal(order.getItems()));
+            // another request of the session adds to the cart before the order is placed
+            shoppingCartService.addItem(new OrderItem(stored, 3));
+
+            order = shoppingCartService.placeOrder(order, new OrderDTO());
+
+            assertEquals(8, bottleRepository.findById(stored.getId()).orElseThrow().getInStock());
+        } finally {
+            if (order.getId() != null) {
+                orderRepository.deleteById(order.getId());
+            }
+            bottleRepository.delete(stored);
+        }
+    }
+
     @Test
     public void getItemsInCart_ShouldSuccess() {
         List<OrderItem> actual = shoppingCartService.getItemsInCart();
         assertEquals(items, actual);
     }
 
+    @Test
+    public void getItemsInCart_ShouldLoadBeveragesOnceAndKeepPriceSnapshot() {
+        shoppingCartService.addItem(sampleItem);
+        schlenkerla.setPrice(BigDecimal.valueOf(1.19));
+
+        items = shoppingCartService.getItemsInCart();
+
+        assertEquals(0, new BigDecimal("30.26").compareTo(items.get(0).getPrice()));
+        verify(catalogCache, times(1)).findAllById(List.of(1L));
+    }
+
+    @Test
+    public void getLineCount_ShouldNotLoadBeverages() {
+        shoppingCartService.addItem(sampleItem);
+
+        assertEquals(1, shoppingCartService.getLineCount());
+        verify(catalogCache, never()).findAllById(anyCollection());
+    }
+
     @Test
     public void getTotal_ShouldSuccess() {
         shoppingCartService.addItem(sampleItem);
 
         double actual = shoppingCartService.getTotal();
-        double expected = schlenkerla.getPrice() * sampleItem.getQuantity();
+        double expected = schlenkerla.getPrice().multiply(BigDecimal.valueOf(sampleItem.getQuantity())).doubleValue();
 
         assertEquals(expected, actual, 1e-6);
     }
 
+    @Test
+    public void getTotals_ShouldFollowEveryChange() {
+        Bottle limo = new Bottle();
+        limo.setId(2L);
+        limo.setPrice(new BigDecimal("1.10"));
+
+        shoppingCartService.addItem(sampleItem);
+        shoppingCartService.addItem(new OrderItem(limo, 3));
+        assertEquals(new CartTotals(Money.ofCents(34 * 89 + 3 * 110), 37, 2), shoppingCartService.getTotals());
+
+        limo.setPrice(new BigDecimal("1.20"));
+        shoppingCartService.addItem(new OrderItem(limo, 1));
+        assertEquals(new CartTotals(Money.ofCents(34 * 89 + 4 * 120), 38, 2), shoppingCartService.getTotals());
+
+        sampleItem.setQuantity(2);
+        shoppingCartService.updateItem(sampleItem);
+        shoppingCartService.removeItem(new OrderItem(limo, 1));
+        assertEquals(new CartTotals(Money.ofCents(2 * 89), 2, 1), shoppingCartService.getTotals());
+        assertEquals(new BigDecimal("1.78"), shoppingCartService.getTotals().total().toBigDecimal());
+
+        shoppingCartService.clearAllItems();
+        assertEquals(CartTotals.EMPTY, shoppingCartService.getTotals());
+    }
+
     @Test
     public void clearAllItems_ShouldSuccess() {
         shoppingCartService.addItem(sampleItem);
 
         shoppingCartService.clearAllItems();
 
+        items = shoppingCartService.getItemsInCart();
         assertEquals(0, items.size());
     }
+
+    @Test
+    public void compactCart_ShouldKeepOrderAcrossRemovalsAndSerialization() throws Exception {
+        CompactCart cart = new CompactCart();
+        for (long id = 1; id <= 40; id++) {
+            cart.add(id * 1_000_003L, (int) id, 89);
+        }
+        cart.add(5 * 1_000_003L, 10, 99);
+        assertTrue(cart.remove(2 * 1_000_003L));
+        assertTrue(cart.update(3 * 1_000_003L, 0));
+        assertFalse(cart.update(2 * 1_000_003L, 4));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(cart);
+        }
+        CompactCart copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (CompactCart) in.readObject();
+        }
+
+        assertEquals(38, copy.size());
+        assertEquals(1_000_003L, copy.idAt(0));
+        assertEquals(4 * 1_000_003L, copy.idAt(1));
+        assertEquals(15, copy.quantityOf(5 * 1_000_003L));
+        assertEquals(99, copy.unitCentsAt(2));
+        assertFalse(copy.contains(3 * 1_000_003L));
+        assertEquals(40, copy.quantityOf(40 * 1_000_003L));
+    }
+
+    @Test
+    public void compactCart_BinaryFormShouldTakeFewBytesPerLineAndRejectCorruptData() {
+        CompactCart cart = new CompactCart();
+        for (long id = 1; id <= 20; id++) {
+            cart.add(id, 2, 189);
+        }
+
+        byte[] data = cart.toBytes();
+        assertTrue(data.length <= 2 + 20 * 4, data.length + " bytes");
+        CompactCart copy = CompactCart.fromBytes(data);
+        assertEquals(cart.toString(), copy.toString());
+        assertEquals(cart.totalCents(), copy.totalCents());
+
+        assertThrows(IllegalArgumentException.class, () -> CompactCart.fromBytes(Arrays.copyOf(data, data.length - 1)));
+        data[0] = 9;
+        assertThrows(IllegalArgumentException.class, () -> CompactCart.fromBytes(data));
+    }
 }
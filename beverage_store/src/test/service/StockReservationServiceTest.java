@@ -0,0 +1,261 @@
+package beverage_store.service;
+
+import beverage_store.model.Bottle;
+import beverage_store.service.impl.StockReservationServiceImpl;
+import beverage_store.stock.InsufficientStockException;
+import beverage_store.stock.TimingWheel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class StockReservationServiceTest {
+
+    private static final long TTL = 15 * 60_000;
+
+    private final CatalogCache catalogCache = mock(CatalogCache.class);
+    private final BeverageService beverageService = mock(BeverageService.class);
+    private final MutableClock clock = new MutableClock();
+
+    private StockReservationServiceImpl reservations;
+
+    @BeforeEach
+    public void initCommonUsedData() {
+        Bottle schlenkerla = new Bottle();
+        schlenkerla.setId(1L);
+        schlenkerla.setInStock(10);
+        when(catalogCache.findById(1L)).thenReturn(Optional.of(schlenkerla));
+        reservations = new StockReservationServiceImpl(catalogCache, beverageService, clock, TTL, 1000);
+    }
+
+    @Test
+    public void reserve_shouldNotHandOutMoreThanInStock() {
+        assertTrue(reservations.reserve("a", 1L, 6));
+        assertFalse(reservations.reserve("b", 1L, 5));
+        assertTrue(reservations.reserve("b", 1L, 4));
+        assertEquals(0, reservations.available(1L));
+
+        // lowering and raising again within the own reservation
+        assertTrue(reservations.reserve("a", 1L, 2));
+        assertTrue(reservations.reserve("a", 1L, 6));
+        assertFalse(reservations.reserve("a", 1L, 7));
+        assertEquals(6, reservations.reservedBy("a", 1L));
+
+        reservations.release("a", List.of(1L));
+        assertEquals(6, reservations.available(1L));
+        assertFalse(reservations.reserve("c", 2L, 1), "unknown beverage has no stock");
+    }
+
+    @Test
+    public void reserve_shouldExpireAfterTtlUnlessRenewed() {
+        reservations.reserve("a", 1L, 6);
+        clock.advance(TTL / 2);
+        reservations.reserve("b", 1L, 4);
+
+        clock.advance(TTL / 2 + 1000);
+        assertEquals(1, reservations.expire());
+        assertEquals(0, reservations.reservedBy("a", 1L));
+        assertEquals(4, reservations.reservedBy("b", 1L));
+
+        clock.advance(TTL);
+        assertEquals(1, reservations.expire());
+        assertEquals(10, reservations.available(1L));
+    }
+
+    @Test
+    public void checkout_shouldDecrementAndRelease() {
+        reservations.reserve("a", 1L, 3);
+
+        reservations.checkout("a", Map.of(1L, 4));
+
+        verify(beverageService).decreaseStock(Map.of(1L, 4));
+        assertEquals(0, reservations.reservedBy("a", 1L));
+    }
+
+    @Test
+    public void checkout_shouldReleaseOnlyAfterTheCommit() {
+        reservations.reserve("a", 1L, 3);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            reservations.checkout("a", Map.of(1L, 4));
+            // still held while the cached stock doesn't show the decrement yet
+            assertEquals(4, reservations.reservedBy("a", 1L));
+            assertEquals(6, reservations.available(1L));
+
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+            TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations,
+                    TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(0, reservations.reservedBy("a", 1L));
+    }
+
+    @Test
+    public void checkout_shouldRestoreReservationsOnRollback() {
+        reservations.reserve("a", 1L, 3);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            reservations.checkout("a", Map.of(1L, 4));
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(),
+                    TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(3, reservations.reservedBy("a", 1L));
+        assertEquals(7, reservations.available(1L));
+    }
+
+    @Test
+    public void checkout_shouldNotRestoreWhatAConcurrentCheckoutReleased() {
+        reservations.reserve("a", 1L, 3);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            reservations.checkout("a", Map.of(1L, 4));
+            // the same cart's other checkout committed first and released the line
+            reservations.release("a", List.of(1L));
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(),
+                    TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(0, reservations.reservedBy("a", 1L));
+    }
+
+    @Test
+    public void checkout_shouldKeepReservationsWhenStoredStockIsShort() {
+        reservations.reserve("a", 1L, 3);
+        doThrow(new InsufficientStockException(List.of(1L))).when(beverageService).decreaseStock(anyMap());
+
+        assertThrows(InsufficientStockException.class, () -> reservations.checkout("a", Map.of(1L, 4)));
+
+        assertEquals(3, reservations.reservedBy("a", 1L));
+    }
+
+    @Test
+    public void checkout_shouldChangeNothingWhenStockIsShort() {
+        reservations.reserve("a", 1L, 3);
+        reservations.reserve("b", 1L, 6);
+
+        assertThrows(InsufficientStockException.class, () -> reservations.checkout("a", Map.of(1L, 5)));
+
+        verify(beverageService, never()).decreaseStock(anyMap());
+        assertEquals(3, reservations.reservedBy("a", 1L));
+    }
+
+    @Test
+    public void reserve_shouldStayWithinStockUnderContention() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        AtomicInteger granted = new AtomicInteger();
+        for (int cart = 0; cart < 100; cart++) {
+            String cartId = "cart-" + cart;
+            pool.execute(() -> {
+                if (reservations.reserve(cartId, 1L, 1)) {
+                    granted.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(10, granted.get());
+        assertEquals(0, reservations.available(1L));
+    }
+
+    @Test
+    public void reserve_shouldNotHoldTheStripeWhileLoadingStock() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch loaded = new CountDownLatch(1);
+        Bottle slow = new Bottle();
+        slow.setId(1L);
+        slow.setInStock(10);
+        // a cache miss that waits for the database
+        when(catalogCache.findById(1L)).thenAnswer(invocation -> {
+            loading.countDown();
+            loaded.await();
+            return Optional.of(slow);
+        });
+        CompletableFuture<Boolean> reserving = CompletableFuture.supplyAsync(() -> reservations.reserve("a", 1L, 2));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        // same beverage, so the same stripe
+        CompletableFuture<Void> releasing = CompletableFuture.runAsync(() -> reservations.release("b", List.of(1L)));
+        assertDoesNotThrow(() -> releasing.get(5, TimeUnit.SECONDS));
+
+        loaded.countDown();
+        assertTrue(reserving.get(5, TimeUnit.SECONDS));
+        assertEquals(2, reservations.reservedBy("a", 1L));
+    }
+
+    @Test
+    public void timingWheel_shouldExpireInOrderAndSkipCancelled() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 8, 0);
+        wheel.schedule("soon", 250);
+        TimingWheel<String>.Timeout cancelled = wheel.schedule("cancelled", 250);
+        // more than one revolution (800 ms) away
+        wheel.schedule("later", 2_050);
+        assertTrue(cancelled.cancel());
+        assertFalse(cancelled.cancel());
+
+        List<String> expired = new ArrayList<>();
+        assertEquals(0, wheel.advance(200, expired::add));
+        assertEquals(1, wheel.advance(300, expired::add));
+        assertEquals(0, wheel.advance(1_100, expired::add));
+        // a long pause visits every bucket once
+        assertEquals(1, wheel.advance(10_000, expired::add));
+        assertEquals(List.of("soon", "later"), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    private static final class MutableClock extends Clock {
+        private long millis = 1_700_000_000_000L;
+
+        void advance(long delta) {
+            millis += delta;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package beverage_store.service;
+
+import beverage_store.images.DiskLruCache;
+import beverage_store.images.ImageOrigin;
+import beverage_store.images.ThumbnailRenderer.Thumbnail;
+import beverage_store.images.ThumbnailSize;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+public class ThumbnailServiceTest {
+
+    @TempDir
+    static Path origin;
+
+    @TempDir
+    static Path cache;
+
+    @DynamicPropertySource
+    static void imageProperties(DynamicPropertyRegistry registry) {
+        registry.add("images.origin.dir", origin::toString);
+        registry.add("images.cache.dir", cache::toString);
+    }
+
+    @SpyBean
+    private ImageOrigin imageOrigin;
+
+    @Autowired
+    private ThumbnailService thumbnailService;
+
+    @BeforeAll
+    static void createOriginals() throws IOException {
+        writeImage(origin.resolve("photo.jpg"), 1300, 3000, BufferedImage.TYPE_INT_RGB);
+        writeImage(origin.resolve("logo.png"), 400, 400, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    private static void writeImage(Path file, int width, int height, int type) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, type);
+        ImageIO.write(image, type == BufferedImage.TYPE_INT_ARGB ? "png" : "jpeg", file.toFile());
+    }
+
+    private static BufferedImage decode(Thumbnail thumbnail) throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(thumbnail.data()));
+    }
+
+    @Test
+    public void getThumbnail_ShouldFitTheBoxAndKeepAspectRatio() throws Exception {
+        Thumbnail thumbnail = thumbnailService.getThumbnail("https://example.com/img/photo.jpg", ThumbnailSize.CATALOG);
+
+        BufferedImage image = decode(thumbnail);
+        assertEquals("jpg", thumbnail.extension());
+        assertEquals(65, image.getWidth());
+        assertEquals(150, image.getHeight());
+    }
+
+    @Test
+    public void getThumbnail_ShouldKeepTransparencyAsPng() throws Exception {
+        Thumbnail thumbnail = thumbnailService.getThumbnail("https://example.com/logo.png", ThumbnailSize.ORDER);
+
+        assertEquals("png", thumbnail.extension());
+        assertEquals(100, decode(thumbnail).getWidth());
+    }
+
+    @Test
+    public void getThumbnail_ShouldFetchFromOriginOnlyOnce() throws Exception {
+        String url = "https://example.com/once/photo.jpg";
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Thumbnail>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> thumbnailService.getThumbnail(url, ThumbnailSize.ORDER)));
+            }
+            for (Future<Thumbnail> result : results) {
+                assertEquals(100, decode(result.get()).getWidth());
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        verify(imageOrigin, times(1)).fetch(url);
+    }
+
+    @Test
+    public void getThumbnail_ShouldFailForMissingOriginal() {
+        assertThrows(IOException.class,
+                () -> thumbnailService.getThumbnail("https://example.com/missing.jpg", ThumbnailSize.CATALOG));
+    }
+
+    @Test
+    public void diskCache_ShouldEvictLeastRecentlyUsedBySize(@TempDir Path dir) throws Exception {
+        DiskLruCache lru = new DiskLruCache(dir, 250);
+        lru.put("a", "jpg", new byte[100]);
+        lru.put("b", "jpg", new byte[100]);
+        assertTrue(lru.get("a").isPresent());
+
+        lru.put("c", "jpg", new byte[100]);
+
+        assertTrue(lru.get("a").isPresent());
+        assertTrue(lru.get("b").isEmpty());
+        assertFalse(Files.exists(dir.resolve("b.jpg")));
+        assertEquals(200, lru.getTotalBytes());
+
+        // the index is rebuilt from the directory after a restart
+        assertEquals(2, new DiskLruCache(dir, 250).size());
+    }
+}
@@ -1,6 +1,7 @@
 package beverage_store.service;
 
 import beverage_store.model.Address;
+import beverage_store.model.CheckoutCustomer;
 import beverage_store.model.User;
 import beverage_store.model.UserDTO;
 import beverage_store.repository.UserRepository;
@@ -138,6 +139,17 @@ public class UserServiceTest {
         assertNull(user);
     }
 
+    @Test
+    public void getCheckoutCustomer_ShouldNotLoadAddressesOrOrders() {
+        CheckoutCustomer customer = new CheckoutCustomer("Max", "mail@mail.de", "96049");
+        when(userRepository.findCheckoutCustomer("Max")).thenReturn(Optional.of(customer));
+
+        assertEquals(Optional.of(customer), userService.getCheckoutCustomer("Max"));
+
+        verify(userRepository, never()).getUserWithEntitiesByUsername(anyString());
+        verify(userRepository, never()).findById(anyString());
+    }
+
     @Test
     public void updateUser_ShouldNotOverwritePasswordWhenDtoPasswordNull() {
         when(userRepository.findById(max.getUsername())).thenReturn(Optional.of(max));